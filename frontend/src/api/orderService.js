@@ -72,6 +72,25 @@ export const orderService = {
     const response = await client.post(`/api/orders/${orderId}/cancel`);
     return response.data;
   },
+
+  // Live order status updates (SSE). EventSource cannot send headers, so the
+  // token goes in the query string. Returns the EventSource; call close() on it.
+  subscribeToOrderEvents: (onStatus) => {
+    const token = localStorage.getItem("accessToken");
+    if (!token) return null;
+    const cleanToken = token.startsWith("Bearer ") ? token.slice(7) : token;
+    const source = new EventSource(
+      `${client.defaults.baseURL}/api/orders/events?access_token=${encodeURIComponent(cleanToken)}`
+    );
+    source.addEventListener("order-status", (event) => {
+      try {
+        onStatus(JSON.parse(event.data));
+      } catch (err) {
+        console.error("❌ Bad order-status event:", err);
+      }
+    });
+    return source;
+  },
 };
 
 // ============ CART SERVICE ============
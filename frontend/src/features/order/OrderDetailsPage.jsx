@@ -21,6 +21,16 @@ function OrderDetailsPage() {
     fetchOrderDetails();
   }, [orderId]);
 
+  // Keep the status current without polling
+  useEffect(() => {
+    const source = orderService.subscribeToOrderEvents(({ orderId: changedId, status }) => {
+      if (String(changedId) === String(orderId)) {
+        setOrder((current) => (current ? { ...current, status } : current));
+      }
+    });
+    return () => source?.close();
+  }, [orderId]);
+
   // Fetch medicine names for items that only have medicineId
   useEffect(() => {
     const fetchMedicineName = async (medicineId) => {
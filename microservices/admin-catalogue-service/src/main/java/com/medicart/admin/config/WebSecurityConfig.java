@@ -20,9 +20,11 @@ public class WebSecurityConfig {
             LoggerFactory.getLogger(WebSecurityConfig.class);
 
     private final JwtAuthenticationFilter jwtFilter;
+    private final InternalServiceAuthFilter internalServiceAuthFilter;
 
-    public WebSecurityConfig(JwtAuthenticationFilter jwtFilter) {
+    public WebSecurityConfig(JwtAuthenticationFilter jwtFilter, InternalServiceAuthFilter internalServiceAuthFilter) {
         this.jwtFilter = jwtFilter;
+        this.internalServiceAuthFilter = internalServiceAuthFilter;
     }
 
     @Bean
@@ -65,6 +67,12 @@ public class WebSecurityConfig {
                     .requestMatchers("PUT", "/medicines/**").hasRole("ADMIN")
                     .requestMatchers("DELETE", "/medicines/**").hasRole("ADMIN")
 
+                    // Internal stock endpoints called by cart-orders-service over Feign
+                    // (shared X-Internal-Token, see InternalServiceAuthFilter)
+                    .requestMatchers("POST", "/batches/allocate").hasRole("SERVICE")
+                    .requestMatchers("PUT", "/batches/reduce-quantities").hasRole("SERVICE")
+                    .requestMatchers("PUT", "/batches/release-quantities").hasRole("SERVICE")
+
                     .requestMatchers("POST", "/batches/**").authenticated()
                     .requestMatchers("PUT", "/batches/**").authenticated()
                     .requestMatchers("DELETE", "/batches/**").hasRole("ADMIN")
@@ -74,6 +82,9 @@ public class WebSecurityConfig {
                 log.debug("      ✓ GET /medicines/** → permitAll (public)");
                 log.debug("      ✓ GET /batches/**  → permitAll (public)");
                 log.debug("      ✓ GET /health     → permitAll (public)");
+                log.debug("      ✓ POST /batches/allocate → hasRole('SERVICE') (internal service call)");
+                log.debug("      ✓ PUT /batches/reduce-quantities → hasRole('SERVICE') (internal service call)");
+                log.debug("      ✓ PUT /batches/release-quantities → hasRole('SERVICE') (internal service call)");
                 log.debug("      ✓ POST /batches/** → authenticated (JWT required) 🔧 TEMP FIX");
                 log.debug("      ✓ PUT /batches/**  → authenticated (JWT required) 🔧 TEMP FIX");
                 log.debug("      ✓ POST/PUT/DELETE /medicines/** → hasRole('ADMIN')");
@@ -82,9 +93,11 @@ public class WebSecurityConfig {
             })
 
             // 🔥 ORDER MATTERS - JWT filter BEFORE username/password filter
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(internalServiceAuthFilter, JwtAuthenticationFilter.class);
 
         log.debug("   🔥 Filter Order: JwtAuthenticationFilter added BEFORE UsernamePasswordAuthenticationFilter");
+        log.debug("   🔥 Filter Order: InternalServiceAuthFilter added BEFORE JwtAuthenticationFilter");
         log.info("════════════════════════════════════════════════════════════════");
         log.info("✅ [WebSecurityConfig] SECURITY FILTER CHAIN INITIALIZED");
         log.info("════════════════════════════════════════════════════════════════");
@@ -18,6 +18,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.medicart.admin.service.BatchService;
 import com.medicart.common.dto.BatchDTO;
+import com.medicart.common.dto.StockAdjustmentRequestDTO;
+import com.medicart.common.dto.StockAdjustmentResultDTO;
+import com.medicart.common.dto.StockAllocationRequestDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
 
 @RestController
 @RequestMapping("/batches")
@@ -78,6 +82,17 @@ public class BatchController {
         return created;
     }
 
+    @PostMapping("/allocate")
+    public StockAllocationResultDTO allocate(@RequestBody StockAllocationRequestDTO request) {
+        log.debug("🔶 [POST /batches/allocate] REQUEST RECEIVED - {} lines, reserve: {}",
+                request.getLines() == null ? 0 : request.getLines().size(), request.getReserve());
+
+        StockAllocationResultDTO result = service.allocate(request);
+        log.debug("✅ [POST /batches/allocate] RESPONSE SENT: fulfilled={}, {} splits",
+                result.getFulfilled(), result.getSplits().size());
+        return result;
+    }
+
     @PutMapping("/{id}")
     public BatchDTO updateBatch(@PathVariable Long id,
                                 @RequestBody BatchDTO dto) {
@@ -108,4 +123,25 @@ public class BatchController {
         service.reduceBatchQuantity(batchId, quantity);
         log.debug("✅ [PUT /batches/{}/reduce-quantity] RESPONSE SENT", batchId);
     }
+
+    @PutMapping("/reduce-quantities")
+    public StockAdjustmentResultDTO reduceBatchQuantities(@RequestBody StockAdjustmentRequestDTO request) {
+        log.debug("🔶 [PUT /batches/reduce-quantities] REQUEST RECEIVED - requestId: {}, {} lines",
+                request.getRequestId(), request.getLines() == null ? 0 : request.getLines().size());
+
+        StockAdjustmentResultDTO result = service.reduceBatchQuantities(request);
+        log.debug("✅ [PUT /batches/reduce-quantities] RESPONSE SENT: applied={}, {} shortfalls",
+                result.getApplied(), result.getShortfalls().size());
+        return result;
+    }
+
+    @PutMapping("/release-quantities")
+    public List<StockAdjustmentResultDTO> releaseBatchQuantities(@RequestBody List<StockAdjustmentRequestDTO> requests) {
+        log.debug("🔶 [PUT /batches/release-quantities] REQUEST RECEIVED - {} requests", requests.size());
+
+        List<StockAdjustmentResultDTO> results = service.releaseBatchQuantities(requests);
+        log.debug("✅ [PUT /batches/release-quantities] RESPONSE SENT: {} applied",
+                results.stream().filter(r -> Boolean.TRUE.equals(r.getApplied())).count());
+        return results;
+    }
 }
@@ -51,6 +51,16 @@ public class MedicineController {
         return ResponseEntity.ok(medicines);
     }
 
+    @GetMapping("/bulk")
+    public ResponseEntity<List<MedicineDTO>> getMedicinesByIds(@RequestParam List<Long> ids) {
+        log.debug("🔷 [GET /medicines/bulk] REQUEST RECEIVED - {} ids", ids.size());
+        logSecurityContext("getMedicinesByIds");
+
+        List<MedicineDTO> medicines = medicineService.getMedicinesByIds(ids);
+        log.debug("✅ [GET /medicines/bulk] RESPONSE SENT: {} medicines", medicines.size());
+        return ResponseEntity.ok(medicines);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MedicineDTO> getMedicineById(@PathVariable Long id) {
         log.debug("🔷 [GET /medicines/{}] REQUEST RECEIVED", id);
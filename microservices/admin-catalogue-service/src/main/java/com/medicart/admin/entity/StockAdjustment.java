@@ -0,0 +1,47 @@
+package com.medicart.admin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One row per applied bulk stock adjustment. The unique request_id is what
+ * makes redelivered adjustments (outbox retries) a no-op.
+ */
+@Entity
+@Table(name = "stock_adjustments", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_adjustments_request_id", columnNames = {"request_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAdjustment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "request_id", nullable = false, length = 100)
+    private String requestId;
+
+    @Column(nullable = false, length = 20)
+    private String type; // DECREMENT, RELEASE, REVOKED (decrement cancelled before it arrived)
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount;
+
+    // DECREMENT: per-batch quantities actually taken (JSON), so a release gives back no more
+    @Column(name = "applied_lines", columnDefinition = "TEXT")
+    private String appliedLines;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,15 +1,40 @@
 package com.medicart.admin.repository;
 
 import com.medicart.admin.entity.Batch;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BatchRepository extends JpaRepository<Batch, Long> {
     List<Batch> findByMedicineId(Long medicineId);
+
+    List<Batch> findByMedicineIdIn(Collection<Long> medicineIds);
     
     @Query("SELECT b FROM Batch b WHERE b.medicine.id = :medicineId ORDER BY b.expiryDate ASC")
     List<Batch> findByMedicineIdOrderByExpiryDate(Long medicineId);
+
+    // Unexpired batches with stock, in FIFO order per medicine
+    @Query("SELECT b FROM Batch b JOIN FETCH b.medicine m WHERE m.id IN :medicineIds " +
+           "AND b.qtyAvailable > 0 AND b.expiryDate > :today ORDER BY m.id, b.expiryDate ASC, b.id ASC")
+    List<Batch> findAllocatableBatches(@Param("medicineIds") Collection<Long> medicineIds,
+                                       @Param("today") LocalDate today);
+
+    // Same as findAllocatableBatches, but row-locks the batches for a reserving allocation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Batch b JOIN FETCH b.medicine m WHERE m.id IN :medicineIds " +
+           "AND b.qtyAvailable > 0 AND b.expiryDate > :today ORDER BY m.id, b.expiryDate ASC, b.id ASC")
+    List<Batch> lockAllocatableBatches(@Param("medicineIds") Collection<Long> medicineIds,
+                                       @Param("today") LocalDate today);
+
+    // Row-locks the given batches in id order (consistent lock order avoids deadlocks)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Batch b WHERE b.id IN :ids ORDER BY b.id")
+    List<Batch> lockByIdIn(@Param("ids") Collection<Long> ids);
 }
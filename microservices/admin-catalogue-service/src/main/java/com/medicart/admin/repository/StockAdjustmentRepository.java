@@ -0,0 +1,14 @@
+package com.medicart.admin.repository;
+
+import com.medicart.admin.entity.StockAdjustment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StockAdjustmentRepository extends JpaRepository<StockAdjustment, Long> {
+    boolean existsByRequestId(String requestId);
+
+    Optional<StockAdjustment> findByRequestId(String requestId);
+}
@@ -1,14 +1,29 @@
 package com.medicart.admin.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.medicart.admin.entity.Batch;
 import com.medicart.admin.entity.Medicine;
+import com.medicart.admin.entity.StockAdjustment;
 import com.medicart.admin.repository.BatchRepository;
 import com.medicart.admin.repository.MedicineRepository;
+import com.medicart.admin.repository.StockAdjustmentRepository;
 import com.medicart.common.dto.BatchDTO;
+import com.medicart.common.dto.StockAdjustmentRequestDTO;
+import com.medicart.common.dto.StockAdjustmentResultDTO;
+import com.medicart.common.dto.StockAllocationRequestDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -16,11 +31,19 @@ public class BatchService {
 
     private final BatchRepository batchRepository;
     private final MedicineRepository medicineRepository;
+    private final StockAdjustmentRepository stockAdjustmentRepository;
+    private final ObjectMapper objectMapper;
+
+    private static final TypeReference<Map<Long, Integer>> APPLIED_LINES_TYPE = new TypeReference<>() {};
 
     public BatchService(BatchRepository batchRepository,
-                        MedicineRepository medicineRepository) {
+                        MedicineRepository medicineRepository,
+                        StockAdjustmentRepository stockAdjustmentRepository,
+                        ObjectMapper objectMapper) {
         this.batchRepository = batchRepository;
         this.medicineRepository = medicineRepository;
+        this.stockAdjustmentRepository = stockAdjustmentRepository;
+        this.objectMapper = objectMapper;
     }
 
     // ✅ READ - All batches
@@ -39,6 +62,74 @@ public class BatchService {
                 .toList();
     }
 
+    // ✅ ALLOCATE - FIFO by expiry for a whole order, in one transaction
+    // Splits each requested line across the earliest-expiring batches. With reserve=true
+    // the batches are row-locked and decremented, but only if every line is covered.
+    public StockAllocationResultDTO allocate(StockAllocationRequestDTO request) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        for (StockAllocationRequestDTO.Line line : request.getLines()) {
+            if (line.getMedicineId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new RuntimeException("Each allocation line needs a medicineId and a positive quantity");
+            }
+            requested.merge(line.getMedicineId(), line.getQuantity(), Integer::sum);
+        }
+
+        boolean reserve = Boolean.TRUE.equals(request.getReserve());
+        LocalDate today = LocalDate.now();
+        List<Batch> candidates = reserve
+                ? batchRepository.lockAllocatableBatches(requested.keySet(), today)
+                : batchRepository.findAllocatableBatches(requested.keySet(), today);
+
+        Map<Long, List<Batch>> batchesByMedicine = candidates.stream()
+                .collect(Collectors.groupingBy(batch -> batch.getMedicine().getId()));
+
+        List<StockAllocationResultDTO.Split> splits = new ArrayList<>();
+        List<Batch> splitBatches = new ArrayList<>();
+        List<StockAllocationResultDTO.Shortfall> shortfalls = new ArrayList<>();
+
+        requested.forEach((medicineId, quantity) -> {
+            int remaining = quantity;
+            for (Batch batch : batchesByMedicine.getOrDefault(medicineId, List.of())) {
+                if (remaining <= 0) break;
+
+                int allocated = Math.min(remaining, batch.getQtyAvailable());
+                splits.add(StockAllocationResultDTO.Split.builder()
+                        .medicineId(medicineId)
+                        .medicineName(batch.getMedicine().getName())
+                        .batchId(batch.getId())
+                        .batchNo(batch.getBatchNo())
+                        .expiryDate(batch.getExpiryDate())
+                        .quantity(allocated)
+                        .build());
+                splitBatches.add(batch);
+                remaining -= allocated;
+            }
+
+            if (remaining > 0) {
+                shortfalls.add(StockAllocationResultDTO.Shortfall.builder()
+                        .medicineId(medicineId)
+                        .requested(quantity)
+                        .available(quantity - remaining)
+                        .build());
+            }
+        });
+
+        boolean fulfilled = shortfalls.isEmpty();
+        if (reserve && fulfilled) {
+            for (int i = 0; i < splits.size(); i++) {
+                Batch batch = splitBatches.get(i);
+                batch.setQtyAvailable(batch.getQtyAvailable() - splits.get(i).getQuantity());
+            }
+        }
+
+        return StockAllocationResultDTO.builder()
+                .fulfilled(fulfilled)
+                .reserved(reserve && fulfilled)
+                .splits(splits)
+                .shortfalls(shortfalls)
+                .build();
+    }
+
     // ✅ CREATE
     public BatchDTO createBatch(BatchDTO dto) {
         Medicine medicine = medicineRepository.findById(dto.getMedicineId())
@@ -98,6 +189,158 @@ public class BatchService {
         batchRepository.save(batch);
     }
 
+    // ✅ REDUCE MANY BATCH QUANTITIES (outbox delivery from cart-orders-service)
+    // Idempotent on requestId: the adjustment row is inserted first, so a concurrent
+    // duplicate fails on the unique key before any batch is touched. A batch never goes
+    // below zero; whatever could not be taken is reported back as a shortfall.
+    public StockAdjustmentResultDTO reduceBatchQuantities(StockAdjustmentRequestDTO request) {
+        return adjust(request, "DECREMENT");
+    }
+
+    // ✅ RELEASE MANY BATCH QUANTITIES (cancelled orders, one call per outbox batch)
+    // Each request is idempotent on its own requestId; all of them share one transaction.
+    // A release naming the decrement it reverses gives back what that decrement took.
+    public List<StockAdjustmentResultDTO> releaseBatchQuantities(List<StockAdjustmentRequestDTO> requests) {
+        return requests.stream()
+                .map(request -> adjust(request, "RELEASE"))
+                .toList();
+    }
+
+    private StockAdjustmentResultDTO adjust(StockAdjustmentRequestDTO request, String type) {
+        if (request.getRequestId() == null || request.getRequestId().isBlank()) {
+            throw new RuntimeException("Stock adjustment needs a requestId");
+        }
+        if (stockAdjustmentRepository.existsByRequestId(request.getRequestId())) {
+            return StockAdjustmentResultDTO.builder()
+                    .requestId(request.getRequestId())
+                    .applied(false)
+                    .build();
+        }
+        if ("RELEASE".equals(type) && request.getReverses() != null) {
+            return reverse(request);
+        }
+
+        Map<Long, Integer> requested = mergeLines(request.getLines());
+        StockAdjustment adjustment = stockAdjustmentRepository.saveAndFlush(StockAdjustment.builder()
+                .requestId(request.getRequestId())
+                .type(type)
+                .lineCount(requested.size())
+                .build());
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        List<StockAdjustmentRequestDTO.Line> shortfalls = apply(requested, type, taken);
+        if ("DECREMENT".equals(type)) {
+            adjustment.setAppliedLines(writeLines(taken));
+        }
+
+        return StockAdjustmentResultDTO.builder()
+                .requestId(request.getRequestId())
+                .applied(true)
+                .shortfalls(shortfalls)
+                .build();
+    }
+
+    // Undo a decrement by its requestId. If it never arrived, a REVOKED row takes its
+    // requestId, so a delivery still in flight is acknowledged without taking stock.
+    private StockAdjustmentResultDTO reverse(StockAdjustmentRequestDTO request) {
+        StockAdjustment decrement = stockAdjustmentRepository.findByRequestId(request.getReverses()).orElse(null);
+        Map<Long, Integer> toRelease;
+        if (decrement == null) {
+            stockAdjustmentRepository.save(StockAdjustment.builder()
+                    .requestId(request.getReverses())
+                    .type("REVOKED")
+                    .lineCount(0)
+                    .build());
+            toRelease = Map.of();
+        } else if ("DECREMENT".equals(decrement.getType()) && decrement.getAppliedLines() != null) {
+            toRelease = readLines(decrement.getAppliedLines());
+        } else if ("DECREMENT".equals(decrement.getType())) {
+            // Decrement recorded before applied_lines existed: trust the caller's lines
+            toRelease = mergeLines(request.getLines());
+        } else {
+            toRelease = Map.of();
+        }
+
+        stockAdjustmentRepository.saveAndFlush(StockAdjustment.builder()
+                .requestId(request.getRequestId())
+                .type("RELEASE")
+                .lineCount(toRelease.size())
+                .build());
+        List<StockAdjustmentRequestDTO.Line> shortfalls = toRelease.isEmpty()
+                ? new ArrayList<>()
+                : apply(toRelease, "RELEASE", new LinkedHashMap<>());
+
+        return StockAdjustmentResultDTO.builder()
+                .requestId(request.getRequestId())
+                .applied(true)
+                .shortfalls(shortfalls)
+                .build();
+    }
+
+    // Locks the batches and moves stock; fills taken with what actually moved
+    private List<StockAdjustmentRequestDTO.Line> apply(Map<Long, Integer> requested, String type,
+                                                       Map<Long, Integer> taken) {
+        Map<Long, Batch> batches = batchRepository.lockByIdIn(requested.keySet()).stream()
+                .collect(Collectors.toMap(Batch::getId, Function.identity()));
+
+        List<StockAdjustmentRequestDTO.Line> shortfalls = new ArrayList<>();
+        requested.forEach((batchId, quantity) -> {
+            Batch batch = batches.get(batchId);
+            if (batch == null) {
+                // Batch deleted since the order was placed: nothing to adjust
+                shortfalls.add(StockAdjustmentRequestDTO.Line.builder().batchId(batchId).quantity(quantity).build());
+                return;
+            }
+            if ("RELEASE".equals(type)) {
+                batch.setQtyAvailable(batch.getQtyAvailable() + quantity);
+                taken.put(batchId, quantity);
+                return;
+            }
+            int moved = Math.min(batch.getQtyAvailable(), quantity);
+            batch.setQtyAvailable(batch.getQtyAvailable() - moved);
+            if (moved > 0) {
+                taken.put(batchId, moved);
+            }
+            if (moved < quantity) {
+                shortfalls.add(StockAdjustmentRequestDTO.Line.builder()
+                        .batchId(batchId)
+                        .quantity(quantity - moved)
+                        .build());
+            }
+        });
+        return shortfalls;
+    }
+
+    private String writeLines(Map<Long, Integer> lines) {
+        try {
+            return objectMapper.writeValueAsString(lines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize applied stock lines", e);
+        }
+    }
+
+    private Map<Long, Integer> readLines(String json) {
+        try {
+            return objectMapper.readValue(json, APPLIED_LINES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read applied stock lines", e);
+        }
+    }
+
+    private Map<Long, Integer> mergeLines(List<StockAdjustmentRequestDTO.Line> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new RuntimeException("Stock adjustment needs at least one line");
+        }
+        Map<Long, Integer> merged = new LinkedHashMap<>();
+        for (StockAdjustmentRequestDTO.Line line : lines) {
+            if (line.getBatchId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new RuntimeException("Each adjustment line needs a batchId and a positive quantity");
+            }
+            merged.merge(line.getBatchId(), line.getQuantity(), Integer::sum);
+        }
+        return merged;
+    }
+
     // 🔁 Mapper
     private BatchDTO toDTO(Batch batch) {
         return BatchDTO.builder()
@@ -1,6 +1,8 @@
 package com.medicart.admin.service;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +56,26 @@ public class MedicineService {
         return convertToDTO(medicine);
     }
 
+    /**
+     * Multi-get used by cart-orders-service to enrich a whole cart in one call.
+     * Batches for all requested medicines are loaded with a single query.
+     */
+    public List<MedicineDTO> getMedicinesByIds(Collection<Long> ids) {
+        log.info("🔍 Fetching {} medicines by id", ids.size());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<Batch>> batchesByMedicine = batchRepository.findByMedicineIdIn(ids)
+                .stream()
+                .collect(Collectors.groupingBy(batch -> batch.getMedicine().getId()));
+
+        return medicineRepository.findAllById(ids).stream()
+                .map(medicine -> convertToDTO(medicine,
+                        batchesByMedicine.getOrDefault(medicine.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
     public MedicineDTO updateMedicine(Long id, MedicineDTO medicineDTO) {
         Medicine medicine = medicineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Medicine not found"));
@@ -79,12 +101,16 @@ public class MedicineService {
     }
 
     private MedicineDTO convertToDTO(Medicine medicine) {
+        return convertToDTO(medicine, batchRepository.findByMedicineId(medicine.getId()));
+    }
+
+    private MedicineDTO convertToDTO(Medicine medicine, List<Batch> batches) {
         log.debug("🔄 Converting medicine {} to DTO", medicine.getId());
         // Calculate stock status based on batches
-        String stockStatus = calculateStockStatus(medicine.getId());
+        String stockStatus = calculateStockStatus(medicine.getId(), batches);
         
         // ✅ Calculate total quantity from all batches
-        Integer totalQtyFromBatches = calculateTotalQuantityFromBatches(medicine.getId());
+        Integer totalQtyFromBatches = calculateTotalQuantityFromBatches(medicine.getId(), batches);
         
         log.debug("📊 Quantity calculation for medicine {}: medicineEntity={}, fromBatches={}", 
                 medicine.getId(), medicine.getTotalQuantity(), totalQtyFromBatches);
@@ -108,12 +134,9 @@ public class MedicineService {
         return dto;
     }
 
-    private String calculateStockStatus(Long medicineId) {
+    private String calculateStockStatus(Long medicineId, List<Batch> batches) {
         try {
             log.debug("📊 Calculating stock status for medicineId: {}", medicineId);
-            
-            // Get all batches for this medicine
-            List<Batch> batches = batchRepository.findByMedicineId(medicineId);
 
             log.debug("  Found {} batches for medicineId: {}", batches == null ? 0 : batches.size(), medicineId);
 
@@ -153,12 +176,9 @@ public class MedicineService {
         }
     }
 
-    private Integer calculateTotalQuantityFromBatches(Long medicineId) {
+    private Integer calculateTotalQuantityFromBatches(Long medicineId, List<Batch> batches) {
         try {
             log.debug("📦 Calculating total quantity from batches for medicineId: {}", medicineId);
-            
-            // Get all batches for this medicine
-            List<Batch> batches = batchRepository.findByMedicineId(medicineId);
 
             if (batches == null || batches.isEmpty()) {
                 log.debug("  ❌ NO BATCHES FOUND - Returning 0");
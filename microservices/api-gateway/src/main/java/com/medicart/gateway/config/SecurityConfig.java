@@ -49,6 +49,8 @@ public class SecurityConfig {
                 "GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "HEAD"
         ));
         corsConfiguration.setAllowedHeaders(Arrays.asList("*"));
+        // Keyset pagination: let the browser read the next-page cursor
+        corsConfiguration.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
         corsConfiguration.setAllowCredentials(true);
         corsConfiguration.setMaxAge(3600L);
 
@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 
 import reactor.core.publisher.Mono;
@@ -14,11 +16,14 @@ public class RequestLoggingFilter implements GlobalFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
 
+    // Query parameters that carry credentials (the order event stream sends its JWT as access_token)
+    private static final String ACCESS_TOKEN_PARAM = "access_token";
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String method = exchange.getRequest().getMethod().toString();
         String path = exchange.getRequest().getPath().toString();
-        String query = exchange.getRequest().getQueryParams().toString();
+        String query = redact(exchange.getRequest().getQueryParams()).toString();
         
         logger.info("📍 API Gateway receiving request:");
         logger.info("   Method: {}", method);
@@ -28,4 +33,13 @@ public class RequestLoggingFilter implements GlobalFilter {
         
         return chain.filter(exchange);
     }
+
+    private static MultiValueMap<String, String> redact(MultiValueMap<String, String> params) {
+        if (!params.containsKey(ACCESS_TOKEN_PARAM)) {
+            return params;
+        }
+        MultiValueMap<String, String> redacted = new LinkedMultiValueMap<>(params);
+        redacted.set(ACCESS_TOKEN_PARAM, "[REDACTED]");
+        return redacted;
+    }
 }
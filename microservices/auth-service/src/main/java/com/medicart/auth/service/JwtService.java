@@ -27,6 +27,8 @@ public class JwtService {
         claims.put("scope", "ROLE_" + user.getRole().getName().replace("ROLE_", ""));
         claims.put("email", user.getEmail());
         claims.put("fullName", user.getFullName());
+        // Lets services identify the caller from the signed token instead of X-User-Id
+        claims.put("userId", user.getId());
 
         return Jwts.builder()
                 .claims(claims)
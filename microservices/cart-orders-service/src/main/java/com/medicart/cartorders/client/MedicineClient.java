@@ -2,11 +2,18 @@ package com.medicart.cartorders.client;
 
 import com.medicart.common.dto.BatchDTO;
 import com.medicart.common.dto.MedicineDTO;
+import com.medicart.common.dto.StockAdjustmentRequestDTO;
+import com.medicart.common.dto.StockAdjustmentResultDTO;
+import com.medicart.common.dto.StockAllocationRequestDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Collection;
 import java.util.List;
 
 @FeignClient(name = "admin-catalogue-service")
@@ -14,10 +21,16 @@ public interface MedicineClient {
     
     @GetMapping("/medicines/{id}")
     MedicineDTO getMedicineById(@PathVariable("id") Long medicineId);
+
+    @GetMapping("/medicines/bulk")
+    List<MedicineDTO> getMedicinesByIds(@RequestParam("ids") Collection<Long> medicineIds);
     
     @GetMapping("/batches/{medicineId}/available")
     List<BatchDTO> getAvailableBatches(@PathVariable("medicineId") Long medicineId);
-    
+
+    @PostMapping("/batches/allocate")
+    StockAllocationResultDTO allocateStock(@RequestBody StockAllocationRequestDTO request);
+
     @GetMapping("/batches/{id}")
     BatchDTO getBatchById(@PathVariable("id") Long batchId);
 
@@ -25,4 +38,12 @@ public interface MedicineClient {
     @PutMapping("/batches/{batchId}/reduce-quantity")
     void reduceBatchQuantity(@PathVariable("batchId") Long batchId, 
                             @RequestParam("quantity") Integer quantity);
+
+    // Bulk, idempotent decrement used by the order outbox dispatcher
+    @PutMapping("/batches/reduce-quantities")
+    StockAdjustmentResultDTO reduceBatchQuantities(@RequestBody StockAdjustmentRequestDTO request);
+
+    // Bulk, idempotent release used for cancelled orders (one call per outbox batch)
+    @PutMapping("/batches/release-quantities")
+    List<StockAdjustmentResultDTO> releaseBatchQuantities(@RequestBody List<StockAdjustmentRequestDTO> requests);
 }
@@ -0,0 +1,85 @@
+package com.medicart.cartorders.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Runs order lifecycle listeners (read model projection) off the request thread.
+     */
+    @Bean(name = "orderEventExecutor")
+    public Executor orderEventExecutor(
+            @Value("${orders.events.pool-size:2}") int poolSize,
+            @Value("${orders.events.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-events-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pushes order status events to this instance's SSE streams and hands them
+     * to the peer relay. Kept apart from orderEventExecutor so stream delivery
+     * never delays read model projection. The stream is a best-effort
+     * notification channel: when the queue is full the event is dropped rather
+     * than failing the AFTER_COMMIT listener of a request that already committed.
+     */
+    @Bean(name = "orderStreamExecutor")
+    public Executor orderStreamExecutor(@Value("${orders.events.stream-queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("order-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Relays order events to peer instances, one task per peer, so a dead peer
+     * (blocking up to relay-timeout-ms) holds one thread, not the event pipeline.
+     * Fire-and-forget: events beyond the queue are dropped.
+     */
+    @Bean(name = "orderEventRelayExecutor")
+    public Executor orderEventRelayExecutor(
+            @Value("${orders.events.relay-pool-size:4}") int poolSize,
+            @Value("${orders.events.relay-queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("order-relay-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Nightly order archival. Its chunk loop runs for up to max-run-minutes, so it
+     * gets its own thread instead of holding the single scheduler thread that the
+     * outbox dispatcher, SSE heartbeat and purges share. One run at a time.
+     */
+    @Bean(name = "orderArchiveExecutor")
+    public Executor orderArchiveExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("order-archive-");
+        executor.initialize();
+        return executor;
+    }
+}
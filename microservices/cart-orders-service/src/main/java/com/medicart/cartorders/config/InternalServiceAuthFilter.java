@@ -0,0 +1,52 @@
+package com.medicart.cartorders.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates service-to-service calls: a request carrying the shared
+ * X-Internal-Token gets ROLE_SERVICE. Internal endpoints require that role,
+ * so reaching them through the public gateway is not enough.
+ */
+@Component
+public class InternalServiceAuthFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(InternalServiceAuthFilter.class);
+
+    public static final String HEADER = "X-Internal-Token";
+
+    private final byte[] serviceToken;
+
+    public InternalServiceAuthFilter(@Value("${internal.service-token}") String serviceToken) {
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(HEADER);
+        if (token != null) {
+            if (MessageDigest.isEqual(serviceToken, token.getBytes(StandardCharsets.UTF_8))) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        "internal-service", null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE"))));
+            } else {
+                log.warn("⚠️  Invalid {} on {} {}", HEADER, request.getMethod(), request.getRequestURI());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
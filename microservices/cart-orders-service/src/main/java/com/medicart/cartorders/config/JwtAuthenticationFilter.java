@@ -0,0 +1,96 @@
+package com.medicart.cartorders.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying an auth-service JWT (Authorization: Bearer).
+ * The role comes from the signed "scope" claim, so admin endpoints do not
+ * depend on headers the client can set; the "userId" claim is kept as the
+ * authentication details. Requests without a valid token stay anonymous and
+ * only reach permitAll endpoints.
+ *
+ * The order event stream also accepts the token as ?access_token=, because a
+ * browser EventSource cannot send headers.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    public static final String ACCESS_TOKEN_PARAM = "access_token";
+    private static final String EVENT_STREAM_PATH = "/api/orders/events";
+
+    private final SecretKey signingKey;
+
+    public JwtAuthenticationFilter(
+            @Value("${jwt.secret:your-secret-key-min-256-bits-long-for-hs256-algorithm-medicart}") String secret) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = resolveToken(request);
+        if (token != null) {
+            try {
+                Claims claims = Jwts.parser()
+                        .verifyWith(signingKey)
+                        .build()
+                        .parseSignedClaims(token)
+                        .getPayload();
+                String role = claims.get("scope", String.class);
+                if (role != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            claims.getSubject(), null, List.of(new SimpleGrantedAuthority(role)));
+                    Number userId = claims.get("userId", Number.class);
+                    authentication.setDetails(userId != null ? userId.longValue() : null);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            } catch (Exception e) {
+                log.warn("⚠️  [JWT FILTER] Rejected token on {} {}: {}", request.getMethod(),
+                        request.getRequestURI(), e.getMessage());
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        if ("GET".equals(request.getMethod()) && EVENT_STREAM_PATH.equals(request.getRequestURI())) {
+            return request.getParameter(ACCESS_TOKEN_PARAM);
+        }
+        return null;
+    }
+
+    /**
+     * The caller's user id from the validated token, or null when the request
+     * is anonymous or the token predates the userId claim.
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getDetails() instanceof Long userId ? userId : null;
+    }
+}
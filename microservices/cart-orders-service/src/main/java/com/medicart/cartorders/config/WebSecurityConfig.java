@@ -4,17 +4,38 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class WebSecurityConfig {
 
+    private final InternalServiceAuthFilter internalServiceAuthFilter;
+    private final JwtAuthenticationFilter jwtFilter;
+
+    public WebSecurityConfig(InternalServiceAuthFilter internalServiceAuthFilter, JwtAuthenticationFilter jwtFilter) {
+        this.internalServiceAuthFilter = internalServiceAuthFilter;
+        this.jwtFilter = jwtFilter;
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authorize -> authorize
+                // Internal endpoints (service-to-service, X-Internal-Token)
+                .requestMatchers("GET", "/api/orders/reconciliation").hasRole("SERVICE")
+                .requestMatchers("/api/orders/internal/**").hasRole("SERVICE")
+
+                // Order event stream: user id from the JWT (header or ?access_token=)
+                .requestMatchers("GET", "/api/orders/events").authenticated()
+
+                // Operations endpoints (JWT with ROLE_ADMIN)
+                .requestMatchers("/api/orders/admin/**").hasRole("ADMIN")
+
                 // Allow cart, order, and address endpoints (development mode)
                 .requestMatchers("/api/cart/**").permitAll()
                 .requestMatchers("/api/orders/**").permitAll()
@@ -25,6 +46,8 @@ public class WebSecurityConfig {
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(internalServiceAuthFilter, JwtAuthenticationFilter.class)
             .httpBasic(basic -> basic.disable())
             .formLogin(form -> form.disable())
             .logout(logout -> logout.disable());
@@ -0,0 +1,139 @@
+package com.medicart.cartorders.controller;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.medicart.cartorders.repository.OrderSearchRepository;
+import com.medicart.cartorders.service.AdminAccess;
+import com.medicart.cartorders.service.ForbiddenException;
+import com.medicart.cartorders.service.OrderAdminService;
+import com.medicart.common.dto.CursorPageDTO;
+import com.medicart.common.dto.OrderStatusBulkRequestDTO;
+import com.medicart.common.dto.OrderStatusBulkResultDTO;
+import com.medicart.common.dto.OrderSummaryDTO;
+
+/**
+ * Operations endpoints over all orders. Every call requires an auth-service
+ * JWT with ROLE_ADMIN (Authorization: Bearer).
+ */
+@RestController
+@RequestMapping("/api/orders/admin")
+public class AdminOrderController {
+    private static final Logger logger = LoggerFactory.getLogger(AdminOrderController.class);
+
+    @Autowired
+    private OrderAdminService orderAdminService;
+
+    @Autowired
+    private AdminAccess adminAccess;
+
+    @Value("${orders.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${orders.history.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Search orders by status, date range [from, to), medicine and user.
+     * Same paging contract as GET /api/orders: list body, X-Next-Cursor header.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long medicineId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        try {
+            adminAccess.requireAdmin();
+            CursorPageDTO<OrderSummaryDTO> page = orderAdminService.search(
+                    new OrderSearchRepository.Criteria(status, from, to, medicineId, userId), cursor, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403)
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
+    @PutMapping("/status")
+    public ResponseEntity<?> bulkUpdateStatus(
+            @RequestBody OrderStatusBulkRequestDTO request) {
+        try {
+            String admin = adminAccess.requireAdmin();
+            logger.info("📦 [PUT /api/orders/admin/status] REQUEST RECEIVED - admin: {}, status: {}, orders: {}",
+                    admin, request.getStatus(), request.getOrderIds() == null ? 0 : request.getOrderIds().size());
+            OrderStatusBulkResultDTO result = orderAdminService.bulkUpdateStatus(request.getOrderIds(), request.getStatus());
+            logger.info("✅ [PUT /api/orders/admin/status] {} updated, {} skipped",
+                    result.getUpdated().size(), result.getSkipped().size());
+            return ResponseEntity.ok(result);
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403)
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
+    @PostMapping("/cancel")
+    public ResponseEntity<?> cancelOrders(
+            @RequestBody OrderStatusBulkRequestDTO request) {
+        try {
+            String admin = adminAccess.requireAdmin();
+            logger.info("🛑 [POST /api/orders/admin/cancel] REQUEST RECEIVED - admin: {}, orders: {}",
+                    admin, request.getOrderIds() == null ? 0 : request.getOrderIds().size());
+            OrderStatusBulkResultDTO result = orderAdminService.cancelOrders(request.getOrderIds());
+            logger.info("✅ [POST /api/orders/admin/cancel] {} cancelled, {} skipped",
+                    result.getUpdated().size(), result.getSkipped().size());
+            return ResponseEntity.ok(result);
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403)
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
+    /**
+     * Batch recall: cancel all open orders that hold stock from the batch.
+     */
+    @PostMapping("/cancel-by-batch/{batchId}")
+    public ResponseEntity<?> cancelOrdersByBatch(@PathVariable Long batchId) {
+        try {
+            String admin = adminAccess.requireAdmin();
+            logger.info("🛑 [POST /api/orders/admin/cancel-by-batch/{}] REQUEST RECEIVED - admin: {}", batchId, admin);
+            OrderStatusBulkResultDTO result = orderAdminService.cancelOrdersByBatch(batchId);
+            logger.info("✅ [POST /api/orders/admin/cancel-by-batch/{}] {} orders cancelled",
+                    batchId, result.getUpdated().size());
+            return ResponseEntity.ok(result);
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403)
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+}
@@ -8,9 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -19,6 +21,8 @@ import org.springframework.web.bind.annotation.RestController;
 import com.medicart.cartorders.client.MedicineClient;
 import com.medicart.cartorders.service.CartService;
 import com.medicart.common.dto.CartItemDTO;
+import com.medicart.common.dto.CartOperationDTO;
+import com.medicart.common.dto.CartSummaryDTO;
 import com.medicart.common.dto.MedicineDTO;
 
 @RestController
@@ -63,6 +67,31 @@ public class CartController {
         return ResponseEntity.ok(cartService.getUserCart(userId));
     }
 
+    @PatchMapping
+    public ResponseEntity<?> applyOperations(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestBody List<CartOperationDTO> operations) {
+
+        log.info("🛒 [PATCH /api/cart] REQUEST RECEIVED - userId: {}, operations: {}",
+                userId, operations == null ? 0 : operations.size());
+
+        if (userId == null) {
+            log.error("❌ X-User-Id header is MISSING or null");
+            return ResponseEntity.status(403).build();
+        }
+        if (operations == null || operations.isEmpty()) {
+            return ResponseEntity.ok(cartService.getUserCart(userId));
+        }
+
+        try {
+            return ResponseEntity.ok(cartService.applyOperations(userId, operations));
+        } catch (RuntimeException e) {
+            log.error("❌ [PATCH /api/cart] Rejected - {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
     @PutMapping("/update/{itemId}")
     public ResponseEntity<CartItemDTO> updateCartItem(
             @PathVariable Long itemId,
@@ -123,4 +152,18 @@ public class CartController {
 
         return ResponseEntity.ok(cartService.getCartTotal(userId));
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryDTO> getSummary(
+            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+
+        log.info("🛒 [GET /api/cart/summary] REQUEST RECEIVED - userId: {}", userId);
+
+        if (userId == null) {
+            log.error("❌ X-User-Id header is MISSING or null");
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(cartService.getCartSummary(userId));
+    }
 }
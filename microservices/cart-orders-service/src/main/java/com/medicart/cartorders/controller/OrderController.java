@@ -1,10 +1,10 @@
 package com.medicart.cartorders.controller;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,9 +14,21 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.medicart.cartorders.config.JwtAuthenticationFilter;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.medicart.cartorders.service.CheckoutQuoteService;
+import com.medicart.cartorders.service.ForbiddenException;
+import com.medicart.cartorders.service.IdempotencyKeyException;
+import com.medicart.cartorders.service.OrderEventStream;
+import com.medicart.cartorders.service.OrderHistoryService;
+import com.medicart.cartorders.service.OrderIdempotencyService;
 import com.medicart.cartorders.service.OrderService;
+import com.medicart.common.dto.CheckoutQuoteDTO;
+import com.medicart.common.dto.CursorPageDTO;
 import com.medicart.common.dto.OrderDTO;
+import com.medicart.common.dto.OrderReconciliationDTO;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,9 +38,28 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private CheckoutQuoteService checkoutQuoteService;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Value("${orders.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${orders.history.max-page-size:200}")
+    private int maxPageSize;
+
     @PostMapping("/place")
     public ResponseEntity<?> placeOrder(
             @RequestHeader(value = "X-User-Id", required = false) String userIdStr,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @org.springframework.web.bind.annotation.RequestBody java.util.Map<String, Object> requestBody) {
         try {
             logger.info("📍 /api/orders/place called");
@@ -45,6 +76,12 @@ public class OrderController {
             logger.info("   addressId extracted: '{}' (type: {})", addressIdStr, 
                 requestBody != null && requestBody.get("addressId") != null ? 
                 requestBody.get("addressId").getClass().getName() : "NULL");
+
+            // Optional checkout quote (price-locked snapshot from POST /api/orders/quotes)
+            String quoteId = null;
+            if (requestBody != null && requestBody.get("quoteId") != null) {
+                quoteId = requestBody.get("quoteId").toString().trim();
+            }
             
             // ✅ EXPLICIT VALIDATION WITH ERROR DETAILS
             if (userIdStr == null || userIdStr.trim().isEmpty()) {
@@ -53,7 +90,7 @@ public class OrderController {
                     .body(java.util.Map.of("error", "Missing X-User-Id header", "status", "failed"));
             }
             
-            if (addressIdStr == null || addressIdStr.trim().isEmpty()) {
+            if ((addressIdStr == null || addressIdStr.trim().isEmpty()) && quoteId == null) {
                 logger.error("❌ MISSING addressId parameter");
                 return ResponseEntity.badRequest()
                     .body(java.util.Map.of("error", "Missing addressId parameter", "status", "failed"));
@@ -63,23 +100,42 @@ public class OrderController {
             Long addressId;
             try {
                 userId = Long.parseLong(userIdStr.trim());
-                addressId = Long.parseLong(addressIdStr.trim());
+                addressId = addressIdStr != null && !addressIdStr.trim().isEmpty()
+                        ? Long.parseLong(addressIdStr.trim()) : null;
             } catch (NumberFormatException e) {
                 logger.error("❌ Invalid format - userId: '{}', addressId: '{}'", userIdStr, addressIdStr);
                 return ResponseEntity.badRequest()
                     .body(java.util.Map.of(
                         "error", "Invalid userId or addressId format",
                         "userId", userIdStr,
-                        "addressId", addressIdStr,
+                        "addressId", String.valueOf(addressIdStr),
                         "status", "failed"
                     ));
             }
             
-            logger.info("✅ Parsed userId: {}, addressId: {}", userId, addressId);
+            logger.info("✅ Parsed userId: {}, addressId: {}, quoteId: {}", userId, addressId, quoteId);
             
-            OrderDTO order = orderService.placeOrder(userId, addressId);
+            OrderDTO order;
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                order = orderService.placeOrder(userId, addressId, quoteId);
+            } else {
+                if (idempotencyKey.length() > 100) {
+                    return ResponseEntity.badRequest()
+                        .body(java.util.Map.of("error", "Idempotency-Key is longer than 100 characters", "status", "failed"));
+                }
+                // Retries with the same key get the original order instead of a new one
+                final Long deliveryAddressId = addressId;
+                final String orderQuoteId = quoteId;
+                order = orderIdempotencyService.execute(userId, idempotencyKey.trim(),
+                        addressId + "|" + quoteId,
+                        () -> orderService.placeOrder(userId, deliveryAddressId, orderQuoteId));
+            }
             logger.info("✅ Order created with ID: {}", order.getId());
             return ResponseEntity.ok(order);
+        } catch (IdempotencyKeyException e) {
+            logger.warn("⚠️  Idempotency-Key '{}' rejected: {}", idempotencyKey, e.getMessage());
+            return ResponseEntity.status(e.getStatus())
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
         } catch (Exception e) {
             logger.error("❌ Exception while placing order: {}", e.getMessage(), e);
             return ResponseEntity.badRequest()
@@ -91,11 +147,113 @@ public class OrderController {
         }
     }
 
-    @GetMapping
-    public ResponseEntity<List<OrderDTO>> getUserOrders(
+    @PostMapping("/quotes")
+    public ResponseEntity<?> createQuote(
+            @RequestHeader("X-User-Id") Long userId,
+            @org.springframework.web.bind.annotation.RequestBody(required = false) java.util.Map<String, Object> requestBody) {
+        logger.info("🧾 [POST /api/orders/quotes] REQUEST RECEIVED - userId: {}", userId);
+        try {
+            Long addressId = null;
+            if (requestBody != null && requestBody.get("addressId") != null) {
+                addressId = Long.parseLong(requestBody.get("addressId").toString().trim());
+            }
+            CheckoutQuoteDTO quote = checkoutQuoteService.createQuote(userId, addressId);
+            return ResponseEntity.ok(quote);
+        } catch (Exception e) {
+            logger.error("❌ [POST /api/orders/quotes] ERROR - {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", String.valueOf(e.getMessage()), "status", "failed"));
+        }
+    }
+
+    @GetMapping("/quotes/{quoteId}")
+    public ResponseEntity<?> getQuote(
+            @PathVariable String quoteId,
             @RequestHeader("X-User-Id") Long userId) {
-        List<OrderDTO> orders = orderService.getUserOrders(userId);
-        return ResponseEntity.ok(orders);
+        try {
+            return ResponseEntity.ok(checkoutQuoteService.getQuote(quoteId, userId));
+        } catch (Exception e) {
+            return ResponseEntity.status(404)
+                .body(java.util.Map.of("error", String.valueOf(e.getMessage()), "status", "failed"));
+        }
+    }
+
+    /**
+     * Order history, newest first, one page at a time.
+     * The body stays a plain list; the cursor for the next page is returned in
+     * the X-Next-Cursor header and is absent on the last page.
+     * view=summary returns OrderSummaryDTO rows without loading order items.
+     * Both views read the order_history read model.
+     */
+    @GetMapping
+    public ResponseEntity<?> getUserOrders(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "full") String view) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        try {
+            CursorPageDTO<?> page = "summary".equalsIgnoreCase(view)
+                    ? orderHistoryService.getUserOrderSummaries(userId, cursor, pageSize)
+                    : orderHistoryService.getUserOrders(userId, cursor, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
+    /**
+     * Server-sent events: one "order-status" event per status change of the
+     * caller's orders (placement, payment confirmation, updates), so the
+     * frontend does not have to poll GET /api/orders/{id}.
+     * The user comes from the JWT, sent as ?access_token= by a browser
+     * EventSource (it cannot set headers).
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamOrderEvents() {
+        Long userId = JwtAuthenticationFilter.currentUserId();
+        if (userId == null) {
+            return ResponseEntity.status(401)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(java.util.Map.of("error", "Token has no userId claim, please sign in again", "status", "failed"));
+        }
+        try {
+            SseEmitter emitter = orderEventStream.subscribe(userId);
+            logger.info("📡 [GET /api/orders/events] Stream opened for user {}", userId);
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(429)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(java.util.Map.of("error", e.getMessage(), "status", "failed"));
+        }
+    }
+
+    /**
+     * Internal: an order event relayed by another instance, for the event
+     * streams open on this one (see OrderEventRelay).
+     */
+    @PostMapping("/internal/events")
+    public ResponseEntity<Void> relayOrderEvent(
+            @org.springframework.web.bind.annotation.RequestBody OrderStatusChangedEvent event) {
+        orderEventStream.deliver(event);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Internal: orders in id order for payment reconciliation (keyset on afterId).
+     * Served from the order_history read model, so archived orders are included.
+     * Requires the service token (X-Internal-Token), see WebSecurityConfig.
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<java.util.List<OrderReconciliationDTO>> getReconciliationChunk(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(orderHistoryService.getReconciliationChunk(afterId, Math.max(1, Math.min(limit, 5000))));
     }
 
     @GetMapping("/{orderId}")
@@ -107,12 +265,35 @@ public class OrderController {
     }
 
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<OrderDTO> updateOrderStatus(
+    public ResponseEntity<?> updateOrderStatus(
             @PathVariable Long orderId,
             @RequestParam String status,
             @RequestHeader("X-User-Id") Long userId) {
-        OrderDTO order = orderService.updateOrderStatus(orderId, status, userId);
-        return ResponseEntity.ok(order);
+        try {
+            OrderDTO order = orderService.updateOrderStatus(orderId, status, userId);
+            return ResponseEntity.ok(order);
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(403)
+                .body(java.util.Map.of("status", "failed", "error", String.valueOf(e.getMessage())));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("status", "failed", "error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @PostMapping("/{orderId}/cancel")
+    public ResponseEntity<?> cancelOrder(
+            @PathVariable Long orderId,
+            @RequestHeader("X-User-Id") Long userId) {
+        logger.info("🛑 [POST /api/orders/{}/cancel] REQUEST RECEIVED - userId: {}", orderId, userId);
+        try {
+            OrderDTO order = orderService.cancelOrder(orderId, userId);
+            return ResponseEntity.ok(order);
+        } catch (Exception e) {
+            logger.error("❌ [POST /api/orders/{}/cancel] ERROR - {}", orderId, e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(java.util.Map.of("status", "failed", "error", String.valueOf(e.getMessage())));
+        }
     }
 
     @PostMapping("/{orderId}/finalize-payment")
@@ -0,0 +1,52 @@
+package com.medicart.cartorders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a finished order, moved out of orders by OrderArchiver.
+ * Same columns as orders (ids are kept) plus the archive time.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_user_date_id", columnList = "user_id, order_date, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 50)
+    private String orderNumber;
+
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private Long addressId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,74 @@
+package com.medicart.cartorders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of an order_history row, archived together with its order so the
+ * read model stays as bounded as orders. History reads merge it back in.
+ */
+@Entity
+@Table(name = "order_history_archive", indexes = {
+    @Index(name = "idx_order_history_archive_user_date_id", columnList = "user_id, order_date, order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrderHistoryEntry {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(length = 50)
+    private String orderNumber;
+
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    private Long addressId;
+
+    @Column(nullable = false)
+    private Long itemCount;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    @Column(name = "names_complete")
+    private Boolean namesComplete;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public OrderHistoryEntry toHistoryEntry() {
+        return OrderHistoryEntry.builder()
+                .orderId(orderId)
+                .userId(userId)
+                .orderNumber(orderNumber)
+                .orderDate(orderDate)
+                .status(status)
+                .totalAmount(totalAmount)
+                .addressId(addressId)
+                .itemCount(itemCount)
+                .items(items)
+                .namesComplete(namesComplete)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
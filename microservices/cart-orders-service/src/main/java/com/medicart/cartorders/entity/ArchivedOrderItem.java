@@ -0,0 +1,48 @@
+package com.medicart.cartorders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of an order item, archived together with its order.
+ */
+@Entity
+@Table(name = "order_items_archive", indexes = {
+    @Index(name = "idx_order_items_archive_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrderItem {
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long medicineId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private Double priceAtPurchase;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(10,2)")
+    private Double unitPrice;
+
+    @Column(nullable = false, columnDefinition = "DECIMAL(10,2)")
+    private Double subtotal;
+
+    @Column(nullable = false)
+    private Long batchId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
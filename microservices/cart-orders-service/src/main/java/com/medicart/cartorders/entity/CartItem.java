@@ -16,8 +16,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 public class CartItem {
+    // Pooled table generator like orders: ids are reserved 50 at a time, so
+    // new lines of a bulk cart update are inserted in one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_item_id_gen")
+    @TableGenerator(name = "cart_item_id_gen", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "cart_items", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
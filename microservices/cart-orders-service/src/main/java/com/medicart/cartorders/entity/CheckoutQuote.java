@@ -0,0 +1,55 @@
+package com.medicart.cartorders.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Durable copy of a checkout quote. The hot copy lives in CheckoutQuoteStore;
+ * this row is the fallback after a restart or on another instance.
+ */
+@Entity
+@Table(name = "checkout_quotes", indexes = {
+    @Index(name = "idx_checkout_quotes_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutQuote {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private Long addressId;
+
+    private Long orderId;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "ACTIVE"; // ACTIVE, ORDERED
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    // Quote lines as compact JSON (medicine, batch, quantity, locked unit price)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String lines;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
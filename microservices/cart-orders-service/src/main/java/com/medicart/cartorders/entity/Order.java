@@ -1,5 +1,6 @@
 package com.medicart.cartorders.entity;
 
+import com.medicart.cartorders.id.SnowflakeIdGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,14 +10,23 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_date_id", columnList = "user_id, order_date, id"),
+    @Index(name = "idx_orders_status_date_id", columnList = "status, order_date, id"),
+    @Index(name = "idx_orders_date_id", columnList = "order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
+    // Pooled table generator (MySQL has no sequences): ids are reserved 50 at a
+    // time, which lets Hibernate batch the INSERTs instead of one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_gen")
+    @TableGenerator(name = "order_id_gen", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -52,9 +62,9 @@ public class Order {
         orderDate = LocalDateTime.now();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
-        // Generate unique order number: ORD-{userId}-{timestamp}
+        // Order numbers come from the snowflake generator (unique across instances)
         if (orderNumber == null) {
-            orderNumber = "ORD-" + userId + "-" + System.currentTimeMillis();
+            orderNumber = SnowflakeIdGenerator.shared().nextOrderNumber();
         }
     }
 
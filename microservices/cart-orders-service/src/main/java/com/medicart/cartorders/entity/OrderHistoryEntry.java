@@ -0,0 +1,101 @@
+package com.medicart.cartorders.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized order-history read model: one row per order, items embedded as
+ * JSON with medicine names resolved when the row was written. History reads
+ * never join order_items or call the catalogue.
+ *
+ * The id is the order id, so Spring Data cannot tell a new row from its id and
+ * would merge (SELECT first) every save. Rows built by the projector are new
+ * unless marked otherwise; loaded and saved rows are not.
+ */
+@Entity
+@Table(name = "order_history", indexes = {
+    @Index(name = "idx_order_history_user_date_id", columnList = "user_id, order_date, order_id"),
+    @Index(name = "idx_order_history_names_complete", columnList = "names_complete, order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHistoryEntry implements Persistable<Long> {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(length = 50)
+    private String orderNumber;
+
+    @Column(nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Double totalAmount;
+
+    private Long addressId;
+
+    @Column(nullable = false)
+    private Long itemCount;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String items;
+
+    // False while some item names could not be resolved; OrderHistoryBackfill retries those rows
+    @Column(name = "names_complete")
+    private Boolean namesComplete;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private boolean newEntry = true;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newEntry = false;
+    }
+
+    // Rebuilding a row that already exists: save it as an update
+    public void markExisting() {
+        newEntry = false;
+    }
+
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+}
@@ -0,0 +1,56 @@
+package com.medicart.cartorders.entity;
+
+import com.medicart.cartorders.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key claim for POST /api/orders/place. The row is inserted before
+ * the order is placed (IN_PROGRESS) and completed with the resulting OrderDTO,
+ * so a retried request gets the original order back instead of a new one.
+ */
+@Entity
+@Table(name = "order_idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_idempotency_user_key", columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_order_idempotency_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIdempotencyKey {
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // Identifies the request body, so a key reused for a different request is rejected
+    @Column(nullable = false, length = 100)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "IN_PROGRESS"; // IN_PROGRESS, COMPLETED
+
+    private Long orderId;
+
+    // OrderDTO returned for the original request, as JSON
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -8,14 +8,22 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_medicine_order", columnList = "medicine_id, order_id"),
+    @Index(name = "idx_order_items_batch_order", columnList = "batch_id, order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class OrderItem {
+    // Pooled table generator (MySQL has no sequences): ids are reserved 50 at a
+    // time, which lets Hibernate batch the INSERTs instead of one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_gen")
+    @TableGenerator(name = "order_item_id_gen", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,69 @@
+package com.medicart.cartorders.entity;
+
+import com.medicart.cartorders.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox row: written in the same transaction as the order change
+ * it belongs to, delivered to the catalogue later by OrderOutboxDispatcher.
+ */
+@Entity
+@Table(name = "order_outbox", indexes = {
+    @Index(name = "idx_order_outbox_status_next", columnList = "status, next_attempt_at, id"),
+    @Index(name = "idx_order_outbox_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+    // Assigned before INSERT, so outbox rows batch with the order update
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 30)
+    private String eventType; // STOCK_DECREMENT, STOCK_RELEASE
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Event body as JSON (e.g. per-batch quantities)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDING"; // PENDING, IN_FLIGHT, SENT, DEAD, SKIPPED
+
+    // Deliveries started, counted when a dispatcher claims the row
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Next retry while PENDING; lease expiry while IN_FLIGHT
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.medicart.cartorders.entity;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Order lifecycle. Order.status stays a String column; this enum only defines
+ * which transitions are legal.
+ *
+ * PENDING -> CONFIRMED -> SHIPPED -> DELIVERED, and PENDING/CONFIRMED -> CANCELLED.
+ */
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    CANCELLED;
+
+    public Set<OrderStatus> next() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return next().contains(target);
+    }
+
+    /**
+     * Statuses an order may be in to move to this one, as stored column values.
+     */
+    public List<String> sources() {
+        return Arrays.stream(values())
+                .filter(status -> status.canTransitionTo(this))
+                .map(Enum::name)
+                .toList();
+    }
+
+    public static OrderStatus parse(String value) {
+        try {
+            return OrderStatus.valueOf(value.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unknown order status: " + value);
+        }
+    }
+}
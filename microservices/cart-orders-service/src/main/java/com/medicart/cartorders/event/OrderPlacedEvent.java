@@ -0,0 +1,7 @@
+package com.medicart.cartorders.event;
+
+/**
+ * Published inside the placing transaction; listeners act after commit.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId) {
+}
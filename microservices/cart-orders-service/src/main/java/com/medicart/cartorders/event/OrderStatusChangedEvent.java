@@ -0,0 +1,7 @@
+package com.medicart.cartorders.event;
+
+/**
+ * Published whenever an order moves to a new status (manual update or payment finalization).
+ */
+public record OrderStatusChangedEvent(Long orderId, Long userId, String status) {
+}
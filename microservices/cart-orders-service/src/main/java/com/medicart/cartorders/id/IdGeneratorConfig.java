@@ -0,0 +1,79 @@
+package com.medicart.cartorders.id;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+
+/**
+ * Creates the SnowflakeIdGenerator and picks its node id without a coordinator:
+ * 1. orders.id.node-id when set explicitly
+ * 2. the snowflake-node-id entry of this instance's Eureka metadata
+ *    (eureka.instance.metadata-map.snowflake-node-id)
+ * 3. otherwise a hash of the Eureka instance id, moved past any node id already
+ *    advertised by a running peer, then published in our own metadata so later
+ *    instances avoid it
+ */
+@Configuration
+public class IdGeneratorConfig {
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    static final String NODE_ID_METADATA_KEY = "snowflake-node-id";
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(
+            ApplicationInfoManager applicationInfoManager,
+            DiscoveryClient discoveryClient,
+            @Value("${orders.id.node-id:-1}") int configuredNodeId,
+            @Value("${orders.id.max-clock-backward-ms:5000}") long maxBackwardMs) {
+        int nodeId = resolveNodeId(applicationInfoManager, discoveryClient, configuredNodeId);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(nodeId, maxBackwardMs);
+        SnowflakeIdGenerator.share(generator);
+        log.info("✅ Snowflake id generator ready on node {}", nodeId);
+        return generator;
+    }
+
+    private int resolveNodeId(ApplicationInfoManager applicationInfoManager,
+                              DiscoveryClient discoveryClient,
+                              int configuredNodeId) {
+        if (configuredNodeId >= 0) {
+            return configuredNodeId;
+        }
+
+        Map<String, String> metadata = applicationInfoManager.getInfo().getMetadata();
+        String advertised = metadata.get(NODE_ID_METADATA_KEY);
+        if (advertised != null) {
+            return Integer.parseInt(advertised.trim());
+        }
+
+        String instanceId = applicationInfoManager.getInfo().getInstanceId();
+        String appName = applicationInfoManager.getInfo().getAppName();
+        Set<Integer> taken = new HashSet<>();
+        try {
+            for (ServiceInstance peer : discoveryClient.getInstances(appName)) {
+                String peerNodeId = peer.getMetadata().get(NODE_ID_METADATA_KEY);
+                if (peerNodeId != null && !instanceId.equals(peer.getInstanceId())) {
+                    taken.add(Integer.parseInt(peerNodeId.trim()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("⚠️  Could not list peers for snowflake node id: {}", e.getMessage());
+        }
+
+        int nodeId = Math.floorMod(instanceId.hashCode(), SnowflakeIdGenerator.MAX_NODE_ID + 1);
+        while (taken.contains(nodeId) && taken.size() <= SnowflakeIdGenerator.MAX_NODE_ID) {
+            nodeId = (nodeId + 1) & SnowflakeIdGenerator.MAX_NODE_ID;
+        }
+        applicationInfoManager.registerAppMetadata(Map.of(NODE_ID_METADATA_KEY, String.valueOf(nodeId)));
+        return nodeId;
+    }
+}
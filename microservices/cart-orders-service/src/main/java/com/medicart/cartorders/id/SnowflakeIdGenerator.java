@@ -0,0 +1,96 @@
+package com.medicart.cartorders.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 64-bit ids: 41 bits of milliseconds since 2024-01-01 UTC,
+ * 10 bits of node id and a 12-bit per-millisecond sequence.
+ *
+ * The last issued (timestamp, sequence) pair is packed into a single AtomicLong,
+ * so issuing an id is one CAS with no locks. If the wall clock steps back by up
+ * to maxBackwardMs the generator keeps counting on its own logical clock
+ * (ids stay unique and increasing); a larger jump fails fast instead of
+ * risking duplicates. When a millisecond's 4096 ids run out, the generator
+ * borrows the next millisecond, then spins until the wall clock reaches it.
+ */
+public class SnowflakeIdGenerator {
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile SnowflakeIdGenerator shared;
+
+    private final long nodeBits;
+    private final long maxBackwardMs;
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId, long maxBackwardMs) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Snowflake node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.maxBackwardMs = maxBackwardMs;
+    }
+
+    public long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long last = state.get();
+            long lastMillis = last >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                long lag = lastMillis - now;
+                if (lag > maxBackwardMs) {
+                    throw new IllegalStateException("Clock moved backwards by " + lag + " ms; refusing to issue ids");
+                }
+                if ((last & SEQUENCE_MASK) == SEQUENCE_MASK && lag > 0) {
+                    // Sequence exhausted and already one millisecond ahead: wait for the clock
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // Same millisecond or a small backwards step; on sequence overflow
+                // last + 1 carries into the next millisecond
+                next = last + 1;
+            }
+
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | nodeBits
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Order numbers: the id in base 36, e.g. ORD-2K4F9X1QZ0G5.
+     */
+    public String nextOrderNumber() {
+        return "ORD-" + Long.toString(nextId(), 36).toUpperCase();
+    }
+
+    public int nodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * Instance used by Hibernate id generators, which are not Spring beans.
+     */
+    public static SnowflakeIdGenerator shared() {
+        SnowflakeIdGenerator generator = shared;
+        if (generator == null) {
+            throw new IllegalStateException("SnowflakeIdGenerator has not been initialized");
+        }
+        return generator;
+    }
+
+    static void share(SnowflakeIdGenerator generator) {
+        shared = generator;
+    }
+}
@@ -0,0 +1,25 @@
+package com.medicart.cartorders.id;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * Hibernate side of {@link SnowflakeId}. Hibernate instantiates generators
+ * itself, so this delegates to the generator registered by IdGeneratorConfig.
+ */
+public class SnowflakeIdentifierGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        return SnowflakeIdGenerator.shared().nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
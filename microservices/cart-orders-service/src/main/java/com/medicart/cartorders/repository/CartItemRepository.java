@@ -2,7 +2,11 @@ package com.medicart.cartorders.repository;
 
 import com.medicart.cartorders.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,21 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByUserId(Long userId);
     Optional<CartItem> findByUserIdAndMedicineId(Long userId, Long medicineId);
     void deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.userId = :userId AND c.medicineId IN :medicineIds")
+    int deleteByUserIdAndMedicineIds(@Param("userId") Long userId, @Param("medicineIds") Collection<Long> medicineIds);
+
+    /**
+     * Aggregates the cart in SQL so totals never materialize CartItem entities.
+     */
+    @Query("SELECT COUNT(c) AS lineCount, SUM(c.quantity) AS itemCount, SUM(c.price * c.quantity) AS total " +
+           "FROM CartItem c WHERE c.userId = :userId")
+    CartTotals summarizeByUserId(@Param("userId") Long userId);
+
+    interface CartTotals {
+        Long getLineCount();
+        Long getItemCount();
+        Double getTotal();
+    }
 }
@@ -0,0 +1,36 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.CheckoutQuote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CheckoutQuoteRepository extends JpaRepository<CheckoutQuote, String> {
+
+    interface State {
+        Long getOrderId();
+        String getStatus();
+    }
+
+    // The mutable part of a quote, read by primary key without loading the lines
+    @Query("SELECT q.orderId AS orderId, q.status AS status FROM CheckoutQuote q WHERE q.id = :id")
+    Optional<State> findStateById(@Param("id") String id);
+
+    /**
+     * Binds an active, unexpired quote to an order. Returns 0 when the quote was
+     * already used or has expired, which makes double consumption impossible.
+     */
+    @Modifying
+    @Query("UPDATE CheckoutQuote q SET q.status = 'ORDERED', q.orderId = :orderId " +
+           "WHERE q.id = :id AND q.status = 'ACTIVE' AND q.expiresAt > :now")
+    int markOrdered(@Param("id") String id, @Param("orderId") Long orderId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM CheckoutQuote q WHERE q.status = 'ACTIVE' AND q.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
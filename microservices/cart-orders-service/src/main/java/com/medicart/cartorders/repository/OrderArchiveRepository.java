@@ -0,0 +1,64 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.ArchivedOrder;
+import com.medicart.cartorders.entity.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Moves finished orders from the hot tables to orders_archive/order_items_archive
+ * (and their order_history rows to order_history_archive) with set-based INSERT ... SELECT / DELETE statements, one chunk of ids at a time.
+ */
+@Repository
+public interface OrderArchiveRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // Oldest archivable orders first; locked so no status change races the move
+    @Query(value = "SELECT id FROM orders WHERE order_date < :cutoff AND status IN (:statuses) " +
+                   "ORDER BY order_date, id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff,
+                                 @Param("statuses") Collection<String> statuses,
+                                 @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, medicine_id, quantity, price_at_purchase, " +
+                   "unit_price, subtotal, batch_id, created_at) " +
+                   "SELECT id, order_id, medicine_id, quantity, price_at_purchase, unit_price, subtotal, batch_id, " +
+                   "created_at FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int copyItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, user_id, order_number, order_date, total_amount, status, " +
+                   "address_id, created_at, updated_at, archived_at) " +
+                   "SELECT id, user_id, order_number, order_date, total_amount, status, address_id, created_at, " +
+                   "updated_at, :now FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_history_archive (order_id, user_id, order_number, order_date, status, " +
+                   "total_amount, address_id, item_count, items, names_complete, updated_at, archived_at) " +
+                   "SELECT order_id, user_id, order_number, order_date, status, total_amount, address_id, " +
+                   "item_count, items, names_complete, updated_at, :now FROM order_history " +
+                   "WHERE order_id IN (:ids)", nativeQuery = true)
+    int copyHistory(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_history WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteHistory(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteOrders(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i FROM ArchivedOrderItem i WHERE i.orderId = :orderId ORDER BY i.id")
+    List<ArchivedOrderItem> findItemsByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,49 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.ArchivedOrderHistoryEntry;
+import com.medicart.common.dto.OrderReconciliationDTO;
+import com.medicart.common.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads of order_history_archive; same keyset queries as OrderHistoryRepository
+ * so pages from both tables can be merged.
+ */
+@Repository
+public interface OrderHistoryArchiveRepository extends JpaRepository<ArchivedOrderHistoryEntry, Long> {
+
+    @Query("SELECT h FROM ArchivedOrderHistoryEntry h WHERE h.userId = :userId ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<ArchivedOrderHistoryEntry> findPageByUserId(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT h FROM ArchivedOrderHistoryEntry h WHERE h.userId = :userId " +
+           "AND (h.orderDate < :orderDate OR (h.orderDate = :orderDate AND h.orderId < :orderId)) " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<ArchivedOrderHistoryEntry> findPageByUserIdBefore(@Param("userId") Long userId,
+                                                           @Param("orderDate") LocalDateTime orderDate,
+                                                           @Param("orderId") Long orderId,
+                                                           Pageable page);
+
+    @Query("SELECT new com.medicart.common.dto.OrderSummaryDTO(h.orderId, h.orderNumber, h.orderDate, h.status, " +
+           "h.totalAmount, h.itemCount) FROM ArchivedOrderHistoryEntry h WHERE h.userId = :userId " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderSummaryDTO> findSummaryPageByUserId(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT new com.medicart.common.dto.OrderSummaryDTO(h.orderId, h.orderNumber, h.orderDate, h.status, " +
+           "h.totalAmount, h.itemCount) FROM ArchivedOrderHistoryEntry h WHERE h.userId = :userId " +
+           "AND (h.orderDate < :orderDate OR (h.orderDate = :orderDate AND h.orderId < :orderId)) " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderSummaryDTO> findSummaryPageByUserIdBefore(@Param("userId") Long userId,
+                                                        @Param("orderDate") LocalDateTime orderDate,
+                                                        @Param("orderId") Long orderId,
+                                                        Pageable page);
+
+    @Query("SELECT new com.medicart.common.dto.OrderReconciliationDTO(h.orderId, h.userId, h.status, " +
+           "h.totalAmount, h.updatedAt) FROM ArchivedOrderHistoryEntry h WHERE h.orderId > :afterId ORDER BY h.orderId")
+    List<OrderReconciliationDTO> findReconciliationChunk(@Param("afterId") Long afterId, Pageable page);
+}
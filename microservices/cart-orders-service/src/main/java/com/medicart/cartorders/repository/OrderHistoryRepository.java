@@ -0,0 +1,65 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.OrderHistoryEntry;
+import com.medicart.common.dto.OrderReconciliationDTO;
+import com.medicart.common.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderHistoryRepository extends JpaRepository<OrderHistoryEntry, Long> {
+
+    // Keyset pagination over idx_order_history_user_date_id, newest first
+    @Query("SELECT h FROM OrderHistoryEntry h WHERE h.userId = :userId ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderHistoryEntry> findPageByUserId(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT h FROM OrderHistoryEntry h WHERE h.userId = :userId " +
+           "AND (h.orderDate < :orderDate OR (h.orderDate = :orderDate AND h.orderId < :orderId)) " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderHistoryEntry> findPageByUserIdBefore(@Param("userId") Long userId,
+                                                   @Param("orderDate") LocalDateTime orderDate,
+                                                   @Param("orderId") Long orderId,
+                                                   Pageable page);
+
+    // Summary rows straight from columns; the items JSON is never read
+    @Query("SELECT new com.medicart.common.dto.OrderSummaryDTO(h.orderId, h.orderNumber, h.orderDate, h.status, " +
+           "h.totalAmount, h.itemCount) FROM OrderHistoryEntry h WHERE h.userId = :userId " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderSummaryDTO> findSummaryPageByUserId(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT new com.medicart.common.dto.OrderSummaryDTO(h.orderId, h.orderNumber, h.orderDate, h.status, " +
+           "h.totalAmount, h.itemCount) FROM OrderHistoryEntry h WHERE h.userId = :userId " +
+           "AND (h.orderDate < :orderDate OR (h.orderDate = :orderDate AND h.orderId < :orderId)) " +
+           "ORDER BY h.orderDate DESC, h.orderId DESC")
+    List<OrderSummaryDTO> findSummaryPageByUserIdBefore(@Param("userId") Long userId,
+                                                        @Param("orderDate") LocalDateTime orderDate,
+                                                        @Param("orderId") Long orderId,
+                                                        Pageable page);
+
+    // Reconciliation stream: primary key range scan, order id order, archived orders included
+    @Query("SELECT new com.medicart.common.dto.OrderReconciliationDTO(h.orderId, h.userId, h.status, " +
+           "h.totalAmount, h.updatedAt) FROM OrderHistoryEntry h WHERE h.orderId > :afterId ORDER BY h.orderId")
+    List<OrderReconciliationDTO> findReconciliationChunk(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * Copies the current status from orders. The join reads the latest committed
+     * order row (locking read), so whichever projection runs last writes the
+     * newest status, however the status events were ordered. Returns 0 when the
+     * order has no history row yet.
+     */
+    @Modifying
+    @Query(value = "UPDATE order_history h JOIN orders o ON o.id = h.order_id " +
+                   "SET h.status = o.status, h.updated_at = :now WHERE h.order_id IN (:orderIds)", nativeQuery = true)
+    int refreshStatus(@Param("orderIds") Collection<Long> orderIds, @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.orderId FROM OrderHistoryEntry h WHERE h.namesComplete = false AND h.orderId > :afterId " +
+           "ORDER BY h.orderId")
+    List<Long> findIdsWithMissingNames(@Param("afterId") Long afterId, Pageable page);
+}
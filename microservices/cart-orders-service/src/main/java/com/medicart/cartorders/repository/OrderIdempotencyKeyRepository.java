@@ -0,0 +1,52 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, Long> {
+
+    Optional<OrderIdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Takes over a claim whose owner never completed it (crashed or timed out).
+     * Returns 0 when the claim is still fresh or was already completed.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderIdempotencyKey k SET k.claimedAt = :now WHERE k.id = :id " +
+           "AND k.status = 'IN_PROGRESS' AND k.claimedAt < :staleBefore")
+    int reclaimStale(@Param("id") Long id, @Param("now") LocalDateTime now,
+                     @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Completes the claim held since claimedAt. Returns 0 when the claim was
+     * taken over in the meantime, so the caller must not keep its order.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderIdempotencyKey k SET k.status = 'COMPLETED', k.orderId = :orderId, k.response = :response " +
+           "WHERE k.id = :id AND k.status = 'IN_PROGRESS' AND k.claimedAt = :claimedAt")
+    int complete(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("orderId") Long orderId, @Param("response") String response);
+
+    /**
+     * Frees a claim after a failed placement, unless another request took it over.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderIdempotencyKey k WHERE k.id = :id AND k.status = 'IN_PROGRESS' AND k.claimedAt = :claimedAt")
+    int release(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderIdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,56 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.cartorders.entity.OrderOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    /**
+     * Due events for the dispatcher to claim: PENDING rows whose retry time has
+     * come, and IN_FLIGHT rows whose lease (next_attempt_at) ran out because
+     * their dispatcher died. Lock timeout -2 is SKIP LOCKED in Hibernate, so
+     * several instances can claim without blocking each other or taking the
+     * same row twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.status IN ('PENDING', 'IN_FLIGHT') AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.id")
+    List<OrderOutboxEvent> claimDue(@Param("now") LocalDateTime now, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.id IN :ids")
+    List<OrderOutboxEvent> lockByIds(@Param("ids") Collection<Long> ids);
+
+    interface UndeliveredRef {
+        Long getOrderId();
+        Integer getAttempts();
+    }
+
+    // attempts counts deliveries started, so an IN_FLIGHT row always shows at least one
+    @Query(value = "SELECT order_id AS orderId, attempts AS attempts FROM order_outbox " +
+                   "WHERE order_id IN (:orderIds) AND event_type = :eventType " +
+                   "AND status IN ('PENDING', 'IN_FLIGHT', 'DEAD') FOR UPDATE", nativeQuery = true)
+    List<UndeliveredRef> lockUndelivered(@Param("orderIds") Collection<Long> orderIds,
+                                         @Param("eventType") String eventType);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.status = 'SKIPPED', e.processedAt = :now " +
+           "WHERE e.orderId IN :orderIds AND e.eventType = :eventType AND e.status IN ('PENDING', 'IN_FLIGHT', 'DEAD')")
+    int markSkipped(@Param("orderIds") Collection<Long> orderIds,
+                    @Param("eventType") String eventType,
+                    @Param("now") LocalDateTime now);
+}
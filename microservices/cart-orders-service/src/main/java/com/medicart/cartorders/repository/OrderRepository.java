@@ -1,12 +1,63 @@
 package com.medicart.cartorders.repository;
 
 import com.medicart.cartorders.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
+
+    // Orders missing from the order_history read model, in id order (backfill)
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId " +
+           "AND NOT EXISTS (SELECT h.orderId FROM OrderHistoryEntry h WHERE h.orderId = o.id) ORDER BY o.id")
+    List<Long> findIdsWithoutHistory(@Param("afterId") Long afterId, Pageable page);
+
+    // Loads the items of a set of orders in one extra query
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Row-locks the order so concurrent status transitions are serialized
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    interface OrderRef {
+        Long getId();
+        Long getUserId();
+        String getStatus();
+    }
+
+    // Locks the orders that may move to a new status (bulk transition, step 1)
+    @Query(value = "SELECT id AS id, user_id AS userId, status AS status FROM orders " +
+                   "WHERE id IN (:ids) AND status IN (:statuses) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<OrderRef> lockByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                         @Param("statuses") Collection<String> statuses);
+
+    // Set-based status change for already locked, validated orders (bulk transition, step 2)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") String status,
+                           @Param("now") LocalDateTime now);
+
+    // Cancellable orders holding stock from a batch, in id order (batch recall)
+    @Query("SELECT DISTINCT i.order.id FROM OrderItem i WHERE i.batchId = :batchId " +
+           "AND i.order.status IN ('PENDING', 'CONFIRMED') AND i.order.id > :afterId ORDER BY i.order.id")
+    List<Long> findCancellableIdsByBatchId(@Param("batchId") Long batchId,
+                                           @Param("afterId") Long afterId,
+                                           Pageable page);
 }
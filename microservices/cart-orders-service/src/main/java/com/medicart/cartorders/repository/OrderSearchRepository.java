@@ -0,0 +1,70 @@
+package com.medicart.cartorders.repository;
+
+import com.medicart.common.dto.OrderSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin order search across all users. The JPQL is assembled from the filters
+ * actually given, so each combination hits its own index instead of a catch-all
+ * "(:x IS NULL OR ...)" predicate that MySQL cannot use an index for:
+ * status -> idx_orders_status_date_id, userId -> idx_orders_user_date_id,
+ * date range only -> idx_orders_date_id, medicineId -> idx_order_items_medicine_order.
+ */
+@Repository
+public class OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record Criteria(String status, LocalDateTime from, LocalDateTime to, Long medicineId, Long userId) {
+    }
+
+    /**
+     * One page of summaries, newest first, strictly after (afterDate, afterId) when given.
+     */
+    public List<OrderSummaryDTO> search(Criteria criteria, LocalDateTime afterDate, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.medicart.common.dto.OrderSummaryDTO(o.id, o.orderNumber, o.orderDate, o.status, " +
+                "o.totalAmount, (SELECT SUM(i.quantity) FROM OrderItem i WHERE i.order = o)) " +
+                "FROM Order o WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.status() != null) {
+            jpql.append(" AND o.status = :status");
+            params.put("status", criteria.status());
+        }
+        if (criteria.userId() != null) {
+            jpql.append(" AND o.userId = :userId");
+            params.put("userId", criteria.userId());
+        }
+        if (criteria.from() != null) {
+            jpql.append(" AND o.orderDate >= :from");
+            params.put("from", criteria.from());
+        }
+        if (criteria.to() != null) {
+            jpql.append(" AND o.orderDate < :to");
+            params.put("to", criteria.to());
+        }
+        if (criteria.medicineId() != null) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM OrderItem mi WHERE mi.order = o AND mi.medicineId = :medicineId)");
+            params.put("medicineId", criteria.medicineId());
+        }
+        if (afterDate != null) {
+            jpql.append(" AND (o.orderDate < :afterDate OR (o.orderDate = :afterDate AND o.id < :afterId))");
+            params.put("afterDate", afterDate);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY o.orderDate DESC, o.id DESC");
+
+        TypedQuery<OrderSummaryDTO> query = entityManager.createQuery(jpql.toString(), OrderSummaryDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.medicart.cartorders.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Role check for operations endpoints. The role comes from the caller's
+ * verified JWT (scope claim, see JwtAuthenticationFilter), never from
+ * client-supplied headers such as X-User-Id. WebSecurityConfig already
+ * requires ROLE_ADMIN on /api/orders/admin/**; this keeps the service layer
+ * safe if a route is added outside that path.
+ */
+@Component
+public class AdminAccess {
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    /**
+     * Returns the admin's name (JWT subject) for audit logs.
+     */
+    public String requireAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new ForbiddenException("Admin role required");
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ADMIN_ROLE.equals(authority.getAuthority())) {
+                return authentication.getName();
+            }
+        }
+        throw new ForbiddenException("Admin role required");
+    }
+}
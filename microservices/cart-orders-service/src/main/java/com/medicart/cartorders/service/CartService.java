@@ -4,12 +4,24 @@ import com.medicart.cartorders.client.MedicineClient;
 import com.medicart.cartorders.entity.CartItem;
 import com.medicart.cartorders.repository.CartItemRepository;
 import com.medicart.common.dto.CartItemDTO;
+import com.medicart.common.dto.CartOperationDTO;
+import com.medicart.common.dto.CartSummaryDTO;
 import com.medicart.common.dto.MedicineDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +34,9 @@ public class CartService {
     @Autowired
     private MedicineClient medicineClient;
 
+    @Autowired
+    private CartSummaryCache cartSummaryCache;
+
     /**
      * ADD TO CART (UPSERT)
      */
@@ -44,6 +59,7 @@ public class CartService {
         }
 
         cartItem = cartItemRepository.save(cartItem);
+        evictSummaryAfterCommit(userId);
 
         return convertToDTO(cartItem, medicineDTO);
     }
@@ -62,11 +78,13 @@ public class CartService {
 
         if (quantity <= 0) {
             cartItemRepository.delete(cartItem);
+            evictSummaryAfterCommit(userId);
             return null;
         }
 
         cartItem.setQuantity(quantity);
         cartItem = cartItemRepository.save(cartItem);
+        evictSummaryAfterCommit(userId);
 
         // 🔥 FIX: fetch full medicine details
         MedicineDTO medicineDTO =
@@ -80,15 +98,99 @@ public class CartService {
      */
     public List<CartItemDTO> getUserCart(Long userId) {
 
-        return cartItemRepository.findByUserId(userId)
-                .stream()
-                .map(cartItem -> {
-                    // 🔥 FIX: enrich cart with medicine service
-                    MedicineDTO medicineDTO =
-                            medicineClient.getMedicineById(cartItem.getMedicineId());
+        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+
+        // 🔥 enrich the whole cart with one medicine-service call
+        Map<Long, MedicineDTO> medicines = fetchMedicines(
+                cartItems.stream().map(CartItem::getMedicineId).collect(Collectors.toSet()));
 
-                    return convertToDTO(cartItem, medicineDTO);
-                })
+        return cartItems.stream()
+                .map(cartItem -> convertToDTO(cartItem, medicines.get(cartItem.getMedicineId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * BULK CART MUTATION
+     * Applies all operations in one transaction against a single load of the cart,
+     * with one medicine-service call for enrichment. Returns the resulting cart.
+     */
+    public List<CartItemDTO> applyOperations(Long userId, List<CartOperationDTO> operations) {
+
+        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+
+        Map<Long, CartItem> byMedicine = new LinkedHashMap<>();
+        Map<Long, CartItem> byId = new HashMap<>();
+        for (CartItem item : cartItems) {
+            byMedicine.put(item.getMedicineId(), item);
+            byId.put(item.getId(), item);
+        }
+
+        Set<Long> medicineIds = new HashSet<>(byMedicine.keySet());
+        for (CartOperationDTO operation : operations) {
+            if (operation.getOp() == CartOperationDTO.Type.ADD && operation.getMedicineId() != null) {
+                medicineIds.add(operation.getMedicineId());
+            }
+        }
+        Map<Long, MedicineDTO> medicines = fetchMedicines(medicineIds);
+
+        List<CartItem> removed = new ArrayList<>();
+        for (CartOperationDTO operation : operations) {
+            if (operation.getOp() == null) {
+                throw new RuntimeException("Cart operation type is required");
+            }
+
+            switch (operation.getOp()) {
+                case ADD -> {
+                    if (operation.getMedicineId() == null || operation.getQuantity() == null
+                            || operation.getQuantity() <= 0) {
+                        throw new RuntimeException("ADD requires medicineId and a positive quantity");
+                    }
+                    CartItem cartItem = byMedicine.get(operation.getMedicineId());
+                    if (cartItem != null) {
+                        cartItem.setQuantity(cartItem.getQuantity() + operation.getQuantity());
+                    } else {
+                        MedicineDTO medicineDTO = medicines.get(operation.getMedicineId());
+                        if (medicineDTO == null) {
+                            throw new RuntimeException("Medicine not found: " + operation.getMedicineId());
+                        }
+                        byMedicine.put(operation.getMedicineId(), CartItem.builder()
+                                .userId(userId)
+                                .medicineId(operation.getMedicineId())
+                                .quantity(operation.getQuantity())
+                                .price(medicineDTO.getPrice())
+                                .inStock(medicineDTO.getInStock())
+                                .build());
+                    }
+                }
+                case UPDATE -> {
+                    if (operation.getQuantity() == null) {
+                        throw new RuntimeException("UPDATE requires a quantity");
+                    }
+                    CartItem cartItem = resolveItem(operation, byId, byMedicine);
+                    if (operation.getQuantity() <= 0) {
+                        detach(cartItem, byId, byMedicine, removed);
+                    } else {
+                        cartItem.setQuantity(operation.getQuantity());
+                    }
+                }
+                case REMOVE -> detach(resolveItem(operation, byId, byMedicine), byId, byMedicine, removed);
+            }
+        }
+
+        // Deletes go first: a line removed and re-added in the same request would
+        // otherwise hit uk(user_id, medicine_id) when its new row is inserted
+        if (!removed.isEmpty()) {
+            cartItemRepository.deleteAllInBatch(removed);
+        }
+        // Dirty managed items are flushed as batched UPDATEs; only new lines need saving
+        List<CartItem> added = byMedicine.values().stream()
+                .filter(item -> item.getId() == null)
+                .collect(Collectors.toList());
+        cartItemRepository.saveAll(added);
+        evictSummaryAfterCommit(userId);
+
+        return byMedicine.values().stream()
+                .map(item -> convertToDTO(item, medicines.get(item.getMedicineId())))
                 .collect(Collectors.toList());
     }
 
@@ -105,6 +207,7 @@ public class CartService {
         }
 
         cartItemRepository.delete(cartItem);
+        evictSummaryAfterCommit(userId);
     }
 
     /**
@@ -112,16 +215,102 @@ public class CartService {
      */
     public void clearUserCart(Long userId) {
         cartItemRepository.deleteByUserId(userId);
+        evictSummaryAfterCommit(userId);
+    }
+
+    /**
+     * Removes the lines of the given medicines only, e.g. the ones an order was
+     * placed for; anything added to the cart after checkout stays.
+     */
+    public void removeMedicines(Long userId, Collection<Long> medicineIds) {
+        if (medicineIds.isEmpty()) {
+            return;
+        }
+        cartItemRepository.deleteByUserIdAndMedicineIds(userId, medicineIds);
+        evictSummaryAfterCommit(userId);
     }
 
     /**
      * CART TOTAL
      */
+    @Transactional(readOnly = true)
     public Double getCartTotal(Long userId) {
-        return cartItemRepository.findByUserId(userId)
+        return getCartSummary(userId).getTotal();
+    }
+
+    /**
+     * CART SUMMARY (line count, item count, total)
+     * Served from the summary cache; on a miss the totals are aggregated in SQL
+     * and cached, unless the cart changed while they were being aggregated.
+     */
+    @Transactional(readOnly = true)
+    public CartSummaryDTO getCartSummary(Long userId) {
+        CartSummaryDTO cached = cartSummaryCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cartSummaryCache.stamp(userId);
+        CartItemRepository.CartTotals totals = cartItemRepository.summarizeByUserId(userId);
+
+        CartSummaryDTO summary = CartSummaryDTO.builder()
+                .userId(userId)
+                .lineCount(totals.getLineCount() != null ? totals.getLineCount() : 0L)
+                .itemCount(totals.getItemCount() != null ? totals.getItemCount() : 0L)
+                .total(totals.getTotal() != null ? totals.getTotal() : 0.0)
+                .build();
+
+        cartSummaryCache.put(userId, stamp, summary);
+        return summary;
+    }
+
+    /**
+     * Drops the cached summary once the mutation has committed; the next read
+     * re-aggregates. Evicting earlier would let a read cache the pre-commit total.
+     */
+    private void evictSummaryAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cartSummaryCache.evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cartSummaryCache.evict(userId);
+            }
+        });
+    }
+
+    private CartItem resolveItem(CartOperationDTO operation,
+                                 Map<Long, CartItem> byId,
+                                 Map<Long, CartItem> byMedicine) {
+        CartItem cartItem = operation.getItemId() != null
+                ? byId.get(operation.getItemId())
+                : byMedicine.get(operation.getMedicineId());
+
+        if (cartItem == null) {
+            throw new RuntimeException("Cart item not found");
+        }
+        return cartItem;
+    }
+
+    private void detach(CartItem cartItem,
+                        Map<Long, CartItem> byId,
+                        Map<Long, CartItem> byMedicine,
+                        List<CartItem> removed) {
+        byMedicine.remove(cartItem.getMedicineId());
+        if (cartItem.getId() != null) {
+            byId.remove(cartItem.getId());
+            removed.add(cartItem);
+        }
+    }
+
+    private Map<Long, MedicineDTO> fetchMedicines(Set<Long> medicineIds) {
+        if (medicineIds.isEmpty()) {
+            return Map.of();
+        }
+        return medicineClient.getMedicinesByIds(medicineIds)
                 .stream()
-                .mapToDouble(item -> item.getPrice() * item.getQuantity())
-                .sum();
+                .collect(Collectors.toMap(MedicineDTO::getId, Function.identity(), (a, b) -> a));
     }
 
     /**
@@ -133,7 +322,7 @@ public class CartService {
                 .id(cartItem.getId())
                 .userId(cartItem.getUserId())
                 .medicineId(cartItem.getMedicineId())
-                .medicineName(medicineDTO.getName()) // ✅ now available
+                .medicineName(medicineDTO != null ? medicineDTO.getName() : null) // ✅ now available
                 .price(cartItem.getPrice())
                 .quantity(cartItem.getQuantity())
                 .inStock(cartItem.getInStock())
@@ -0,0 +1,84 @@
+package com.medicart.cartorders.service;
+
+import com.medicart.common.dto.CartSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small per-user LRU of cart summaries.
+ * Only reads fill it; CartService evicts a user's entry once a cart mutation
+ * has committed, and the next read re-aggregates. The TTL only bounds
+ * staleness when another service instance changed the same cart.
+ *
+ * A read takes a stamp before it aggregates and may only cache its result if
+ * no eviction for that user happened in between, so a read that saw the cart
+ * before a concurrent commit cannot put the older total back. Stamps are kept
+ * per stripe of user ids to stay bounded; a collision just skips caching.
+ */
+@Component
+public class CartSummaryCache {
+
+    private static final int STRIPES = 1024;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries;
+    private final long[] stamps = new long[STRIPES];
+
+    public CartSummaryCache(@Value("${cart.summary-cache.max-entries:10000}") int maxEntries,
+                            @Value("${cart.summary-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > CartSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Entries are shared between readers, so callers get their own copy
+    public synchronized CartSummaryDTO get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(userId);
+            return null;
+        }
+        return copy(entry.summary);
+    }
+
+    // Taken before aggregating; pass it to put
+    public synchronized long stamp(Long userId) {
+        return stamps[stripe(userId)];
+    }
+
+    public synchronized void put(Long userId, long stamp, CartSummaryDTO summary) {
+        if (stamps[stripe(userId)] != stamp) {
+            return;
+        }
+        entries.put(userId, new Entry(copy(summary), System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void evict(Long userId) {
+        stamps[stripe(userId)]++;
+        entries.remove(userId);
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), STRIPES);
+    }
+
+    private static CartSummaryDTO copy(CartSummaryDTO summary) {
+        return new CartSummaryDTO(summary.getUserId(), summary.getLineCount(), summary.getItemCount(),
+                summary.getTotal());
+    }
+
+    private record Entry(CartSummaryDTO summary, long expiresAt) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.medicart.cartorders.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.entity.CartItem;
+import com.medicart.cartorders.entity.CheckoutQuote;
+import com.medicart.cartorders.repository.CartItemRepository;
+import com.medicart.cartorders.repository.CheckoutQuoteRepository;
+import com.medicart.common.dto.CheckoutQuoteDTO;
+import com.medicart.common.dto.OrderItemDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
+
+@Service
+@Transactional
+public class CheckoutQuoteService {
+    private static final Logger log = LoggerFactory.getLogger(CheckoutQuoteService.class);
+    private static final TypeReference<List<OrderItemDTO>> LINES_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CheckoutQuoteRepository checkoutQuoteRepository;
+
+    @Autowired
+    private CheckoutQuoteStore checkoutQuoteStore;
+
+    @Autowired
+    private StockAllocator stockAllocator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${checkout.quote.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    /**
+     * CREATE QUOTE (checkout start)
+     * Snapshots the cart with locked prices and FIFO-chosen batches.
+     * Batches are chosen by the catalogue in one allocation call.
+     */
+    public CheckoutQuoteDTO createQuote(Long userId, Long addressId) {
+        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+
+        if (cartItems.isEmpty()) {
+            throw new RuntimeException("Cart is empty");
+        }
+
+        Map<Long, CartItem> cartByMedicine = cartItems.stream()
+                .collect(Collectors.toMap(CartItem::getMedicineId, Function.identity()));
+
+        List<OrderItemDTO> lines = new ArrayList<>();
+        double totalAmount = 0.0;
+
+        // One catalogue round trip picks the batches for every line (FIFO by expiry)
+        for (StockAllocationResultDTO.Split split : stockAllocator.allocate(cartItems)) {
+            CartItem cartItem = cartByMedicine.get(split.getMedicineId());
+            double itemSubtotal = cartItem.getPrice() * split.getQuantity();
+
+            lines.add(OrderItemDTO.builder()
+                    .medicineId(split.getMedicineId())
+                    .medicineName(split.getMedicineName())
+                    .quantity(split.getQuantity())
+                    .priceAtPurchase(cartItem.getPrice())
+                    .unitPrice(cartItem.getPrice())
+                    .subtotal(itemSubtotal)
+                    .batchId(split.getBatchId())
+                    .batchNo(split.getBatchNo())
+                    .build());
+
+            totalAmount += itemSubtotal;
+        }
+
+        CheckoutQuote quote = CheckoutQuote.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .addressId(addressId)
+                .totalAmount(totalAmount)
+                .lines(writeLines(lines))
+                .expiresAt(LocalDateTime.now().plusMinutes(ttlMinutes))
+                .build();
+        quote = checkoutQuoteRepository.save(quote);
+
+        CheckoutQuoteStore.Snapshot snapshot = toSnapshot(quote, lines);
+        checkoutQuoteStore.put(snapshot);
+
+        log.info("🧾 Quote {} created for user {} - {} lines, total {}", quote.getId(), userId, lines.size(), totalAmount);
+        return toDTO(new Current(snapshot, quote.getOrderId(), quote.getStatus()));
+    }
+
+    /**
+     * Get quote (lines from memory when cached, status and order from the database)
+     */
+    @Transactional(readOnly = true)
+    public CheckoutQuoteDTO getQuote(String quoteId, Long userId) {
+        return toDTO(requireOwned(quoteId, userId));
+    }
+
+    /**
+     * Returns a quote that can still be turned into an order.
+     */
+    @Transactional(readOnly = true)
+    public CheckoutQuoteStore.Snapshot requireActive(String quoteId, Long userId) {
+        Current current = requireOwned(quoteId, userId);
+
+        if (!"ACTIVE".equals(current.status())) {
+            throw new RuntimeException("Quote " + quoteId + " was already used for order " + current.orderId());
+        }
+        if (current.snapshot().expiresAtMillis() < System.currentTimeMillis()) {
+            throw new RuntimeException("Quote " + quoteId + " has expired, please restart checkout");
+        }
+        return current.snapshot();
+    }
+
+    /**
+     * Binds the quote to the order inside the caller's transaction.
+     * The conditional update fails if another request consumed the quote first.
+     */
+    public void markOrdered(String quoteId, Long orderId) {
+        int updated = checkoutQuoteRepository.markOrdered(quoteId, orderId, LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Quote " + quoteId + " has expired or was already used");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.quote.purge-interval-ms:60000}")
+    public void purgeExpiredQuotes() {
+        int fromMemory = checkoutQuoteStore.purgeExpired(System.currentTimeMillis());
+        int fromDatabase = checkoutQuoteRepository.deleteExpired(LocalDateTime.now());
+        if (fromMemory > 0 || fromDatabase > 0) {
+            log.debug("🧹 Purged expired quotes - memory: {}, database: {}", fromMemory, fromDatabase);
+        }
+    }
+
+    private Current requireOwned(String quoteId, Long userId) {
+        CheckoutQuoteStore.Snapshot snapshot = checkoutQuoteStore.get(quoteId);
+
+        Current current;
+        if (snapshot == null) {
+            CheckoutQuote quote = checkoutQuoteRepository.findById(quoteId)
+                    .orElseThrow(() -> new RuntimeException("Quote not found"));
+            snapshot = toSnapshot(quote, readLines(quote.getLines()));
+            checkoutQuoteStore.put(snapshot);
+            current = new Current(snapshot, quote.getOrderId(), quote.getStatus());
+        } else {
+            // Another instance may have ordered the quote: status and order always come from the DB
+            CheckoutQuoteRepository.State state = checkoutQuoteRepository.findStateById(quoteId)
+                    .orElseThrow(() -> new RuntimeException("Quote not found"));
+            current = new Current(snapshot, state.getOrderId(), state.getStatus());
+        }
+
+        if (snapshot.userId() != userId) {
+            throw new RuntimeException("Unauthorized to use this quote");
+        }
+        return current;
+    }
+
+    private CheckoutQuoteStore.Snapshot toSnapshot(CheckoutQuote quote, List<OrderItemDTO> lines) {
+        int size = lines.size();
+        long[] medicineIds = new long[size];
+        long[] batchIds = new long[size];
+        int[] quantities = new int[size];
+        double[] unitPrices = new double[size];
+        String[] medicineNames = new String[size];
+        String[] batchNos = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            OrderItemDTO line = lines.get(i);
+            medicineIds[i] = line.getMedicineId();
+            batchIds[i] = line.getBatchId();
+            quantities[i] = line.getQuantity();
+            unitPrices[i] = line.getUnitPrice();
+            medicineNames[i] = line.getMedicineName();
+            batchNos[i] = line.getBatchNo();
+        }
+
+        long expiresAtMillis = quote.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new CheckoutQuoteStore.Snapshot(quote.getId(), quote.getUserId(), quote.getAddressId(),
+                quote.getTotalAmount(), expiresAtMillis,
+                medicineIds, batchIds, quantities, unitPrices, medicineNames, batchNos);
+    }
+
+    private CheckoutQuoteDTO toDTO(Current current) {
+        CheckoutQuoteStore.Snapshot snapshot = current.snapshot();
+        List<OrderItemDTO> lines = new ArrayList<>(snapshot.lineCount());
+        for (int i = 0; i < snapshot.lineCount(); i++) {
+            lines.add(OrderItemDTO.builder()
+                    .medicineId(snapshot.medicineIds()[i])
+                    .medicineName(snapshot.medicineNames()[i])
+                    .quantity(snapshot.quantities()[i])
+                    .priceAtPurchase(snapshot.unitPrices()[i])
+                    .unitPrice(snapshot.unitPrices()[i])
+                    .subtotal(snapshot.unitPrices()[i] * snapshot.quantities()[i])
+                    .batchId(snapshot.batchIds()[i])
+                    .batchNo(snapshot.batchNos()[i])
+                    .build());
+        }
+
+        return CheckoutQuoteDTO.builder()
+                .id(snapshot.id())
+                .userId(snapshot.userId())
+                .addressId(snapshot.addressId())
+                .orderId(current.orderId())
+                .status(current.status())
+                .totalAmount(snapshot.totalAmount())
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.expiresAtMillis()), ZoneId.systemDefault()))
+                .lines(lines)
+                .build();
+    }
+
+    private String writeLines(List<OrderItemDTO> lines) {
+        try {
+            return objectMapper.writeValueAsString(lines);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize quote lines", e);
+        }
+    }
+
+    private List<OrderItemDTO> readLines(String json) {
+        try {
+            return objectMapper.readValue(json, LINES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read quote lines", e);
+        }
+    }
+
+    // Cached lines plus the status and order linkage read from the database
+    private record Current(CheckoutQuoteStore.Snapshot snapshot, Long orderId, String status) {
+    }
+}
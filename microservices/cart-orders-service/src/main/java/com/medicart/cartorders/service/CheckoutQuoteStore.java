@@ -0,0 +1,68 @@
+package com.medicart.cartorders.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of the immutable part of checkout quotes: owner, locked
+ * prices and batches. A quote's status and order linkage change and are shared
+ * by every instance, so they are always read from the database, never from here.
+ * Lines are held as parallel primitive arrays instead of DTO lists, so a quote
+ * with dozens of lines costs a handful of objects. When the store is full new
+ * quotes are only kept in the database.
+ */
+@Component
+public class CheckoutQuoteStore {
+
+    private final int maxEntries;
+    private final Map<String, Snapshot> quotes = new ConcurrentHashMap<>();
+
+    public CheckoutQuoteStore(@Value("${checkout.quote.max-in-memory:50000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Snapshot get(String quoteId) {
+        return quotes.get(quoteId);
+    }
+
+    public void put(Snapshot snapshot) {
+        if (quotes.size() < maxEntries || quotes.containsKey(snapshot.id())) {
+            quotes.put(snapshot.id(), snapshot);
+        }
+    }
+
+    public void remove(String quoteId) {
+        quotes.remove(quoteId);
+    }
+
+    /**
+     * Drops quotes whose lock window has passed; later reads (e.g. payment
+     * resolving an ordered quote) load them from the database again.
+     */
+    public int purgeExpired(long nowMillis) {
+        int before = quotes.size();
+        quotes.values().removeIf(snapshot -> snapshot.expiresAtMillis() < nowMillis);
+        return before - quotes.size();
+    }
+
+    public record Snapshot(
+            String id,
+            long userId,
+            Long addressId,
+            double totalAmount,
+            long expiresAtMillis,
+            long[] medicineIds,
+            long[] batchIds,
+            int[] quantities,
+            double[] unitPrices,
+            String[] medicineNames,
+            String[] batchNos) {
+
+        public int lineCount() {
+            return medicineIds.length;
+        }
+    }
+}
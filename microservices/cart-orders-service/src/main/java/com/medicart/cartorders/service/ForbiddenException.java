@@ -0,0 +1,10 @@
+package com.medicart.cartorders.service;
+
+/**
+ * Caller is known but not allowed to perform the operation (HTTP 403).
+ */
+public class ForbiddenException extends RuntimeException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
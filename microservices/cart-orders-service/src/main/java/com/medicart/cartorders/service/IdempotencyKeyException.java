@@ -0,0 +1,18 @@
+package com.medicart.cartorders.service;
+
+/**
+ * Idempotency-Key cannot be honoured: the original request is still running
+ * (409) or the key was reused for a different request (422).
+ */
+public class IdempotencyKeyException extends RuntimeException {
+    private final int status;
+
+    public IdempotencyKeyException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
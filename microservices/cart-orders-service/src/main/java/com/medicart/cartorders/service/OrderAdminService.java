@@ -0,0 +1,155 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.medicart.cartorders.entity.OrderStatus;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.medicart.cartorders.repository.OrderRepository;
+import com.medicart.cartorders.repository.OrderSearchRepository;
+import com.medicart.common.dto.CursorPageDTO;
+import com.medicart.common.dto.OrderStatusBulkResultDTO;
+import com.medicart.common.dto.OrderSummaryDTO;
+
+/**
+ * Operations-side order access: search across all users, bulk status moves
+ * and bulk cancellation.
+ * Callers must check the admin role first (AdminAccess).
+ */
+@Service
+@Transactional
+public class OrderAdminService {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSearchRepository orderSearchRepository;
+
+    @Autowired
+    private OrderCancellationService orderCancellationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${orders.admin.max-bulk-size:1000}")
+    private int maxBulkSize;
+
+    /**
+     * Search orders of all users, newest first, keyset paginated.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderSummaryDTO> search(OrderSearchRepository.Criteria criteria, String cursor, int limit) {
+        OrderSearchRepository.Criteria normalized = new OrderSearchRepository.Criteria(
+                criteria.status() == null ? null : OrderStatus.parse(criteria.status()).name(),
+                criteria.from(), criteria.to(), criteria.medicineId(), criteria.userId());
+
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        List<OrderSummaryDTO> rows = orderSearchRepository.search(normalized,
+                after == null ? null : after.orderDate(),
+                after == null ? null : after.id(),
+                limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            OrderSummaryDTO last = rows.get(limit - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<OrderSummaryDTO>builder()
+                .items(new ArrayList<>(rows))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Move many orders to one status in a fixed number of statements:
+     * lock the orders whose current status allows the move, update them with one
+     * set-based UPDATE, then publish one status event per order for the read model.
+     * Orders that are missing or not eligible are reported as skipped.
+     */
+    public OrderStatusBulkResultDTO bulkUpdateStatus(List<Long> orderIds, String status) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("orderIds must not be empty");
+        }
+        if (orderIds.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " orders per bulk update");
+        }
+        OrderStatus target = OrderStatus.parse(status);
+        if (target == OrderStatus.CONFIRMED) {
+            throw new IllegalArgumentException("Orders are confirmed by payment finalization only");
+        }
+        if (target == OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Use POST /api/orders/admin/cancel to cancel orders");
+        }
+
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        List<OrderRepository.OrderRef> eligible = orderRepository.lockByIdInAndStatusIn(requested, target.sources());
+
+        List<Long> updated = eligible.stream().map(OrderRepository.OrderRef::getId).toList();
+        if (!updated.isEmpty()) {
+            orderRepository.updateStatusByIdIn(updated, target.name(), LocalDateTime.now());
+            for (OrderRepository.OrderRef order : eligible) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getUserId(), target.name()));
+            }
+        }
+
+        requested.removeAll(updated);
+        return OrderStatusBulkResultDTO.builder()
+                .status(target.name())
+                .updated(new ArrayList<>(updated))
+                .skipped(new ArrayList<>(requested))
+                .build();
+    }
+
+    /**
+     * Cancel many orders, in chunks of max-bulk-size orders per transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderStatusBulkResultDTO cancelOrders(List<Long> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new IllegalArgumentException("orderIds must not be empty");
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        OrderStatusBulkResultDTO total = OrderStatusBulkResultDTO.builder().status(OrderStatus.CANCELLED.name()).build();
+        for (int from = 0; from < distinct.size(); from += maxBulkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + maxBulkSize, distinct.size()));
+            OrderStatusBulkResultDTO result = orderCancellationService.cancelOrders(chunk);
+            total.getUpdated().addAll(result.getUpdated());
+            total.getSkipped().addAll(result.getSkipped());
+        }
+        return total;
+    }
+
+    /**
+     * Batch recall: cancel every PENDING or CONFIRMED order holding stock from the batch.
+     * Walks the affected orders by id, one chunk per transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderStatusBulkResultDTO cancelOrdersByBatch(Long batchId) {
+        OrderStatusBulkResultDTO total = OrderStatusBulkResultDTO.builder().status(OrderStatus.CANCELLED.name()).build();
+        long afterId = 0L;
+        while (true) {
+            List<Long> chunk = orderRepository.findCancellableIdsByBatchId(batchId, afterId, PageRequest.of(0, maxBulkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            OrderStatusBulkResultDTO result = orderCancellationService.cancelOrders(chunk);
+            total.getUpdated().addAll(result.getUpdated());
+            total.getSkipped().addAll(result.getSkipped());
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,74 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.medicart.cartorders.entity.ArchivedOrder;
+import com.medicart.cartorders.entity.OrderStatus;
+import com.medicart.cartorders.repository.OrderArchiveRepository;
+import com.medicart.common.dto.OrderDTO;
+import com.medicart.common.dto.OrderItemDTO;
+
+/**
+ * Reads and writes of the order archive tables.
+ */
+@Service
+@Transactional
+public class OrderArchiveService {
+    private static final List<String> ARCHIVABLE = List.of(OrderStatus.DELIVERED.name(), OrderStatus.CANCELLED.name());
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    /**
+     * Move one chunk of finished orders placed before the cutoff. Returns the number moved.
+     */
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) {
+        List<Long> ids = orderArchiveRepository.lockArchivableIds(cutoff, ARCHIVABLE, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Items first: the archive copy is complete before anything is deleted
+        LocalDateTime now = LocalDateTime.now();
+        orderArchiveRepository.copyItems(ids);
+        orderArchiveRepository.copyOrders(ids, now);
+        orderArchiveRepository.copyHistory(ids, now);
+        orderArchiveRepository.deleteHistory(ids);
+        orderArchiveRepository.deleteItems(ids);
+        orderArchiveRepository.deleteOrders(ids);
+        return ids.size();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderDTO> findArchivedOrder(Long orderId) {
+        return orderArchiveRepository.findById(orderId).map(this::convertToDTO);
+    }
+
+    private OrderDTO convertToDTO(ArchivedOrder order) {
+        List<OrderItemDTO> items = orderArchiveRepository.findItemsByOrderId(order.getId()).stream()
+                .map(item -> OrderItemDTO.builder()
+                        .id(item.getId())
+                        .medicineId(item.getMedicineId())
+                        .quantity(item.getQuantity())
+                        .priceAtPurchase(item.getPriceAtPurchase())
+                        .unitPrice(item.getUnitPrice())
+                        .subtotal(item.getSubtotal())
+                        .batchId(item.getBatchId())
+                        .build())
+                .toList();
+        return OrderDTO.builder()
+                .id(order.getId())
+                .userId(order.getUserId())
+                .orderDate(order.getOrderDate())
+                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus())
+                .addressId(order.getAddressId())
+                .items(items)
+                .build();
+    }
+}
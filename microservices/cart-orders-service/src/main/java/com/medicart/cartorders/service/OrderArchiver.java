@@ -0,0 +1,91 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps orders/order_items bounded by moving finished orders (DELIVERED or
+ * CANCELLED, older than min-age-days) into the archive tables.
+ *
+ * Runs off-peak on a cron, in small chunks: each chunk is its own short
+ * transaction (lock ids, copy items and orders, delete them), with a pause in
+ * between so replicas and foreground traffic keep up. A run stops after
+ * max-chunks-per-run or max-run-minutes and resumes on the next night. The run
+ * is handed to orderArchiveExecutor so it never holds the scheduler thread.
+ * The orders' order_history rows move to order_history_archive in the same
+ * chunk; history reads merge both tables and single-order lookups fall back to
+ * the archive.
+ */
+@Component
+public class OrderArchiver {
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    @Qualifier("orderArchiveExecutor")
+    private Executor orderArchiveExecutor;
+
+    @Value("${orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.archive.min-age-days:365}")
+    private int minAgeDays;
+
+    @Value("${orders.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${orders.archive.max-chunks-per-run:2000}")
+    private int maxChunksPerRun;
+
+    @Value("${orders.archive.max-run-minutes:60}")
+    private long maxRunMinutes;
+
+    @Value("${orders.archive.pause-between-chunks-ms:100}")
+    private long pauseMs;
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            orderArchiveExecutor.execute(this::runArchive);
+        } catch (TaskRejectedException e) {
+            log.warn("⚠️  Order archival skipped: the previous run is still going");
+        }
+    }
+
+    private void runArchive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        long deadline = System.currentTimeMillis() + maxRunMinutes * 60_000L;
+        int archived = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun && System.currentTimeMillis() < deadline; chunk++) {
+                int moved = orderArchiveService.archiveChunk(cutoff, chunkSize);
+                archived += moved;
+                if (moved < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("❌ Order archival stopped after {} orders: {}", archived, e.getMessage());
+        }
+        if (archived > 0) {
+            log.info("✅ Archived {} orders placed before {}", archived, cutoff);
+        }
+    }
+}
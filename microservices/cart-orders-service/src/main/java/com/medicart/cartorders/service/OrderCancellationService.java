@@ -0,0 +1,90 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.medicart.cartorders.entity.Order;
+import com.medicart.cartorders.entity.OrderStatus;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.medicart.cartorders.repository.OrderRepository;
+import com.medicart.common.dto.OrderStatusBulkResultDTO;
+
+/**
+ * Cancels orders and gives their stock back.
+ *
+ * PENDING orders never took stock. For CONFIRMED orders the stock decrement
+ * may still be waiting in the outbox; it is withdrawn there instead of being
+ * delivered and then undone. Every order whose decrement was attempted gets a
+ * STOCK_RELEASE outbox event (it may have been applied even if the response
+ * was lost), which the dispatcher delivers in bulk. Everything happens in a fixed number of statements per call,
+ * whatever the number of orders.
+ */
+@Service
+@Transactional
+public class OrderCancellationService {
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Cancel the given orders. Orders already CANCELLED, missing, or past the point
+     * of cancellation (SHIPPED, DELIVERED) are reported as skipped; repeating a
+     * cancellation is therefore a no-op.
+     */
+    public OrderStatusBulkResultDTO cancelOrders(Collection<Long> orderIds) {
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        List<OrderRepository.OrderRef> eligible = orderRepository.lockByIdInAndStatusIn(
+                requested, OrderStatus.CANCELLED.sources());
+
+        List<Long> cancelled = eligible.stream().map(OrderRepository.OrderRef::getId).toList();
+        if (!cancelled.isEmpty()) {
+            releaseStock(eligible);
+            orderRepository.updateStatusByIdIn(cancelled, OrderStatus.CANCELLED.name(), LocalDateTime.now());
+            for (OrderRepository.OrderRef order : eligible) {
+                eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                        order.getId(), order.getUserId(), OrderStatus.CANCELLED.name()));
+            }
+        }
+
+        requested.removeAll(cancelled);
+        return OrderStatusBulkResultDTO.builder()
+                .status(OrderStatus.CANCELLED.name())
+                .updated(new ArrayList<>(cancelled))
+                .skipped(new ArrayList<>(requested))
+                .build();
+    }
+
+    private void releaseStock(List<OrderRepository.OrderRef> orders) {
+        List<Long> confirmed = orders.stream()
+                .filter(order -> OrderStatus.CONFIRMED.name().equals(order.getStatus()))
+                .map(OrderRepository.OrderRef::getId)
+                .toList();
+        if (confirmed.isEmpty()) {
+            return;
+        }
+
+        Set<Long> neverDecremented = new HashSet<>(orderOutboxService.skipUndeliveredDecrements(confirmed));
+        List<Long> toRelease = confirmed.stream()
+                .filter(id -> !neverDecremented.contains(id))
+                .toList();
+        if (!toRelease.isEmpty()) {
+            List<Order> withItems = orderRepository.findWithItemsByIdIn(toRelease);
+            orderOutboxService.enqueueStockReleases(withItems);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.medicart.cartorders.service;
+
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.medicart.cartorders.config.InternalServiceAuthFilter;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.netflix.appinfo.ApplicationInfoManager;
+
+/**
+ * Forwards order status events to the other cart-orders instances, so a user
+ * whose event stream is open on a different instance than the one that changed
+ * the order still gets the event. Peers come from Eureka and receive the event
+ * on POST /api/orders/internal/events (service token required).
+ * Best effort: each peer gets its own fire-and-forget task on
+ * orderEventRelayExecutor, so a peer that is down or slow only misses that
+ * event and never delays the others; the stream is a notification channel and
+ * clients re-read the order on reconnect.
+ */
+@Component
+public class OrderEventRelay {
+    private static final Logger log = LoggerFactory.getLogger(OrderEventRelay.class);
+
+    static final String RELAY_PATH = "/api/orders/internal/events";
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private ApplicationInfoManager applicationInfoManager;
+
+    @Autowired
+    @Qualifier("orderEventRelayExecutor")
+    private Executor orderEventRelayExecutor;
+
+    @Value("${internal.service-token}")
+    private String serviceToken;
+
+    private final RestClient restClient;
+
+    public OrderEventRelay(@Value("${orders.events.relay-timeout-ms:2000}") int timeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    public void broadcast(OrderStatusChangedEvent event) {
+        String self = applicationInfoManager.getInfo().getInstanceId();
+        String appName = applicationInfoManager.getInfo().getAppName();
+        for (ServiceInstance peer : discoveryClient.getInstances(appName)) {
+            if (!self.equals(peer.getInstanceId())) {
+                orderEventRelayExecutor.execute(() -> send(peer, event));
+            }
+        }
+    }
+
+    private void send(ServiceInstance peer, OrderStatusChangedEvent event) {
+        try {
+            restClient.post()
+                    .uri(peer.getUri() + RELAY_PATH)
+                    .header(InternalServiceAuthFilter.HEADER, serviceToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(event)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (Exception e) {
+            log.warn("⚠️  Could not relay order {} event to {}: {}", event.orderId(), peer.getInstanceId(),
+                    e.getMessage());
+        }
+    }
+}
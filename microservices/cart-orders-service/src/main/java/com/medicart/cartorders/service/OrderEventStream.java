@@ -0,0 +1,141 @@
+package com.medicart.cartorders.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.medicart.cartorders.event.OrderPlacedEvent;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+
+/**
+ * Per-user registry of server-sent event streams for order status changes.
+ *
+ * An idle SseEmitter is just an async servlet request: it holds no thread
+ * between events, so thousands of open connections cost only their sockets.
+ * Events are pushed after the order transaction commits, from the order event
+ * executor, so a slow client never delays the request that changed the order.
+ * A periodic heartbeat keeps proxies from closing idle streams and detects
+ * clients that went away.
+ *
+ * Streams live on whichever instance the client connected to, so every event
+ * is also relayed to the other instances (OrderEventRelay), which deliver it
+ * to their own streams of that user.
+ */
+@Component
+public class OrderEventStream {
+    private static final Logger log = LoggerFactory.getLogger(OrderEventStream.class);
+
+    private final Map<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+
+    @Value("${orders.events.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${orders.events.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Autowired
+    private OrderEventRelay orderEventRelay;
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        // Limit check and add under the map's per-key lock, so a concurrent remove()
+        // cannot drop the set between them and orphan this emitter
+        emittersByUser.compute(userId, (id, emitters) -> {
+            Set<SseEmitter> registered = emitters != null ? emitters : new CopyOnWriteArraySet<>();
+            if (registered.size() >= maxStreamsPerUser) {
+                throw new IllegalStateException("Too many open event streams for user " + userId);
+            }
+            registered.add(emitter);
+            return registered;
+        });
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").data(Map.of("userId", userId)));
+        } catch (IOException e) {
+            remove(userId, emitter);
+        }
+        return emitter;
+    }
+
+    @Async("orderStreamExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        publishEverywhere(new OrderStatusChangedEvent(event.orderId(), event.userId(), "PENDING"));
+    }
+
+    @Async("orderStreamExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publishEverywhere(event);
+    }
+
+    /**
+     * Delivers an event relayed by another instance to this instance's streams.
+     */
+    public void deliver(OrderStatusChangedEvent event) {
+        publish(event.userId(), event.orderId(), event.status());
+    }
+
+    private void publishEverywhere(OrderStatusChangedEvent event) {
+        publish(event.userId(), event.orderId(), event.status());
+        orderEventRelay.broadcast(event);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        emittersByUser.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(userId, emitter, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    private void publish(Long userId, Long orderId, String status) {
+        Set<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        Map<String, Object> payload = Map.of(
+                "orderId", orderId,
+                "status", status,
+                "occurredAt", LocalDateTime.now().toString());
+        for (SseEmitter emitter : emitters) {
+            send(userId, emitter, SseEmitter.event().name("order-status").id(String.valueOf(orderId)).data(payload));
+        }
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected; completing triggers onCompletion, which unregisters it
+            log.debug("SSE stream of user {} closed: {}", userId, e.getMessage());
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.medicart.cartorders.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.medicart.cartorders.repository.OrderHistoryRepository;
+import com.medicart.cartorders.repository.OrderRepository;
+
+/**
+ * Projects orders that have no order_history row yet: orders placed before the
+ * read model existed, or whose projection was lost (e.g. the service stopped
+ * before the async listener ran). Runs once in the background after startup.
+ * Rows written while the catalogue was down are re-projected periodically
+ * until their medicine names are resolved.
+ */
+@Component
+public class OrderHistoryBackfill {
+    private static final Logger log = LoggerFactory.getLogger(OrderHistoryBackfill.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private OrderHistoryProjector orderHistoryProjector;
+
+    @Value("${orders.history.backfill-on-startup:true}")
+    private boolean enabled;
+
+    @Value("${orders.history.backfill-chunk-size:200}")
+    private int chunkSize;
+
+    @Async("orderEventExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0L;
+        int total = 0;
+        try {
+            while (true) {
+                List<Long> ids = orderRepository.findIdsWithoutHistory(afterId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // One transaction per chunk keeps each commit small
+                total += orderHistoryProjector.projectOrders(ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (total > 0) {
+                log.info("✅ Order history backfill projected {} orders", total);
+            }
+        } catch (Exception e) {
+            log.error("❌ Order history backfill stopped after order {}: {}", afterId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.history.name-backfill-interval-ms:300000}")
+    public void backfillNames() {
+        long afterId = 0L;
+        int total = 0;
+        try {
+            while (true) {
+                List<Long> ids = orderHistoryRepository.findIdsWithMissingNames(afterId, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                total += orderHistoryProjector.projectOrders(ids);
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (total > 0) {
+                log.info("✅ Order history re-projected {} orders with missing medicine names", total);
+            }
+        } catch (Exception e) {
+            log.error("❌ Order history name backfill stopped after order {}: {}", afterId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.client.MedicineClient;
+import com.medicart.cartorders.entity.Order;
+import com.medicart.cartorders.entity.OrderHistoryEntry;
+import com.medicart.cartorders.entity.OrderItem;
+import com.medicart.cartorders.event.OrderPlacedEvent;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.medicart.cartorders.repository.OrderHistoryRepository;
+import com.medicart.cartorders.repository.OrderRepository;
+import com.medicart.common.dto.MedicineDTO;
+import com.medicart.common.dto.OrderItemDTO;
+
+/**
+ * Keeps the order_history read model in step with the orders tables.
+ * Listeners run after the writing transaction commits, on the order event
+ * executor, so placing or updating an order never waits on the projection.
+ * Rows are always rebuilt from the current order state, and the status is
+ * copied from the orders row rather than taken from the event, which makes
+ * projecting the same order twice (or out of order) harmless.
+ */
+@Component
+public class OrderHistoryProjector {
+    private static final Logger log = LoggerFactory.getLogger(OrderHistoryProjector.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private MedicineClient medicineClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Async("orderEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        try {
+            projectOrders(List.of(event.orderId()));
+        } catch (Exception e) {
+            log.error("❌ Failed to project placed order {}: {}", event.orderId(), e.getMessage());
+        }
+    }
+
+    @Async("orderEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        try {
+            // Status-only change: no need to rebuild items or resolve names. The
+            // event's status may already be stale, so the current one is copied instead
+            int updated = orderHistoryRepository.refreshStatus(List.of(event.orderId()), LocalDateTime.now());
+            if (updated == 0) {
+                // Placement not projected yet (or never was): build the full row now
+                projectOrders(List.of(event.orderId()));
+            }
+        } catch (Exception e) {
+            log.error("❌ Failed to project status {} for order {}: {}",
+                    event.status(), event.orderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * (Re)build the read-model rows of the given orders.
+     * Items are loaded in one query and medicine names in one catalogue call.
+     */
+    @Transactional
+    public int projectOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Order> orders = orderRepository.findWithItemsByIdIn(orderIds);
+
+        List<Long> medicineIds = orders.stream()
+                .flatMap(order -> order.getItems().stream())
+                .map(OrderItem::getMedicineId)
+                .distinct()
+                .toList();
+        Map<Long, String> names = resolveNames(medicineIds);
+        // A medicine the catalogue no longer knows stays unnamed; only a failed lookup is retried
+        boolean namesComplete = names != null;
+
+        // Existing rows are loaded in one query, so saving them merges into the
+        // managed rows instead of selecting each one; the rest are plain inserts
+        Set<Long> existing = orderHistoryRepository.findAllById(orderIds).stream()
+                .map(OrderHistoryEntry::getOrderId)
+                .collect(Collectors.toSet());
+        List<OrderHistoryEntry> entries = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderHistoryEntry entry = toEntry(order, namesComplete ? names : Map.of(), namesComplete);
+            if (existing.contains(order.getId())) {
+                entry.markExisting();
+            }
+            entries.add(entry);
+        }
+        orderHistoryRepository.saveAllAndFlush(entries);
+        // The orders were read from a snapshot; a status committed since then must not be overwritten
+        orderHistoryRepository.refreshStatus(orderIds, LocalDateTime.now());
+        return entries.size();
+    }
+
+    private Map<Long, String> resolveNames(List<Long> medicineIds) {
+        if (medicineIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return medicineClient.getMedicinesByIds(medicineIds).stream()
+                    .filter(m -> m.getName() != null)
+                    .collect(Collectors.toMap(MedicineDTO::getId, MedicineDTO::getName, (a, b) -> a));
+        } catch (Exception e) {
+            // Catalogue down: still record the order, OrderHistoryBackfill fills the names in later
+            log.warn("⚠️  Could not resolve medicine names for order history: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private OrderHistoryEntry toEntry(Order order, Map<Long, String> names, boolean namesComplete) {
+        List<OrderItemDTO> items = order.getItems().stream()
+                .map(item -> OrderItemDTO.builder()
+                        .id(item.getId())
+                        .medicineId(item.getMedicineId())
+                        .medicineName(names.get(item.getMedicineId()))
+                        .quantity(item.getQuantity())
+                        .priceAtPurchase(item.getPriceAtPurchase())
+                        .unitPrice(item.getUnitPrice())
+                        .subtotal(item.getSubtotal())
+                        .batchId(item.getBatchId())
+                        .build())
+                .collect(Collectors.toList());
+        long itemCount = order.getItems().stream()
+                .mapToLong(item -> item.getQuantity() == null ? 0 : item.getQuantity())
+                .sum();
+
+        String itemsJson;
+        try {
+            itemsJson = objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize items of order " + order.getId(), e);
+        }
+
+        return OrderHistoryEntry.builder()
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .orderNumber(order.getOrderNumber())
+                .orderDate(order.getOrderDate())
+                .status(order.getStatus())
+                .totalAmount(order.getTotalAmount())
+                .addressId(order.getAddressId())
+                .itemCount(itemCount)
+                .items(itemsJson)
+                .namesComplete(namesComplete)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.medicart.cartorders.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.entity.ArchivedOrderHistoryEntry;
+import com.medicart.cartorders.entity.OrderHistoryEntry;
+import com.medicart.cartorders.repository.OrderHistoryArchiveRepository;
+import com.medicart.cartorders.repository.OrderHistoryRepository;
+import com.medicart.common.dto.CursorPageDTO;
+import com.medicart.common.dto.OrderDTO;
+import com.medicart.common.dto.OrderItemDTO;
+import com.medicart.common.dto.OrderReconciliationDTO;
+import com.medicart.common.dto.OrderSummaryDTO;
+
+/**
+ * Order history reads, served entirely from the order_history read model.
+ * One indexed range scan per page (plus one on order_history_archive, merged
+ * on the same keyset, for orders moved out by OrderArchiver): no join on
+ * order_items and no catalogue call.
+ * Rows are written asynchronously, so an order placed a moment ago can take a
+ * few milliseconds to appear here; GET /api/orders/{id} always reads the source.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderHistoryService {
+    private static final TypeReference<List<OrderItemDTO>> ITEMS_TYPE = new TypeReference<>() {};
+
+    private static final Comparator<OrderHistoryEntry> NEWEST_ENTRY_FIRST = Comparator
+            .comparing(OrderHistoryEntry::getOrderDate).thenComparing(OrderHistoryEntry::getOrderId).reversed();
+
+    private static final Comparator<OrderSummaryDTO> NEWEST_SUMMARY_FIRST = Comparator
+            .comparing(OrderSummaryDTO::getOrderDate).thenComparing(OrderSummaryDTO::getId).reversed();
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private OrderHistoryArchiveRepository orderHistoryArchiveRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Get one page of the user's orders with items, newest first.
+     */
+    public CursorPageDTO<OrderDTO> getUserOrders(Long userId, String cursor, int limit) {
+        // Fetch one extra row to know whether another page exists
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<OrderHistoryEntry> entries;
+        List<ArchivedOrderHistoryEntry> archived;
+        if (cursor == null || cursor.isBlank()) {
+            entries = orderHistoryRepository.findPageByUserId(userId, page);
+            archived = orderHistoryArchiveRepository.findPageByUserId(userId, page);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            entries = orderHistoryRepository.findPageByUserIdBefore(userId, after.orderDate(), after.id(), page);
+            archived = orderHistoryArchiveRepository.findPageByUserIdBefore(userId, after.orderDate(), after.id(), page);
+        }
+        entries = merge(entries, archived.stream().map(ArchivedOrderHistoryEntry::toHistoryEntry).toList(),
+                NEWEST_ENTRY_FIRST, limit + 1);
+
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            OrderHistoryEntry last = entries.get(limit - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+        }
+
+        return CursorPageDTO.<OrderDTO>builder()
+                .items(entries.stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Get one page of order summaries for list views, newest first.
+     * Reads only scalar columns; the items JSON is never loaded.
+     */
+    public CursorPageDTO<OrderSummaryDTO> getUserOrderSummaries(Long userId, String cursor, int limit) {
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<OrderSummaryDTO> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = merge(orderHistoryRepository.findSummaryPageByUserId(userId, page),
+                    orderHistoryArchiveRepository.findSummaryPageByUserId(userId, page),
+                    NEWEST_SUMMARY_FIRST, limit + 1);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            summaries = merge(
+                    orderHistoryRepository.findSummaryPageByUserIdBefore(userId, after.orderDate(), after.id(), page),
+                    orderHistoryArchiveRepository.findSummaryPageByUserIdBefore(userId, after.orderDate(), after.id(), page),
+                    NEWEST_SUMMARY_FIRST, limit + 1);
+        }
+
+        String nextCursor = null;
+        if (summaries.size() > limit) {
+            summaries = summaries.subList(0, limit);
+            OrderSummaryDTO last = summaries.get(limit - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<OrderSummaryDTO>builder()
+                .items(new ArrayList<>(summaries))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Next chunk of all orders with id greater than afterId, in id order, for
+     * payment-service's reconciliation merge-join.
+     */
+    public List<OrderReconciliationDTO> getReconciliationChunk(Long afterId, int limit) {
+        Long from = afterId == null ? 0L : afterId;
+        Pageable page = PageRequest.of(0, limit);
+        return merge(orderHistoryRepository.findReconciliationChunk(from, page),
+                orderHistoryArchiveRepository.findReconciliationChunk(from, page),
+                Comparator.comparing(OrderReconciliationDTO::getOrderId), limit);
+    }
+
+    // Merges two lists already sorted by order, keeping the first max rows
+    private static <T> List<T> merge(List<T> hot, List<T> archived, Comparator<T> order, int max) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<T> merged = new ArrayList<>(Math.min(max, hot.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < hot.size() || j < archived.size())) {
+            if (j >= archived.size() || (i < hot.size() && order.compare(hot.get(i), archived.get(j)) <= 0)) {
+                merged.add(hot.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private OrderDTO convertToDTO(OrderHistoryEntry entry) {
+        List<OrderItemDTO> items;
+        try {
+            items = objectMapper.readValue(entry.getItems(), ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt order history items for order " + entry.getOrderId(), e);
+        }
+        return OrderDTO.builder()
+                .id(entry.getOrderId())
+                .userId(entry.getUserId())
+                .orderDate(entry.getOrderDate())
+                .totalAmount(entry.getTotalAmount())
+                .status(entry.getStatus())
+                .addressId(entry.getAddressId())
+                .items(items)
+                .build();
+    }
+}
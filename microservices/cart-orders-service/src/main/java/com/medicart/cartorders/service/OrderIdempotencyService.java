@@ -0,0 +1,211 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.entity.OrderIdempotencyKey;
+import com.medicart.cartorders.repository.OrderIdempotencyKeyRepository;
+import com.medicart.common.dto.OrderDTO;
+
+/**
+ * Idempotency-Key handling for order placement.
+ *
+ * Duplicates on this instance queue on a striped lock and are answered from a
+ * small LRU of completed responses. Across instances the order_idempotency_keys
+ * row is the source of truth: it is inserted (claimed) before the order is placed,
+ * so of two concurrent duplicates only one passes the unique key; the other gets
+ * a 409 and can retry to receive the stored OrderDTO.
+ *
+ * The claim commits on its own; the order and the claim's completion commit in
+ * one transaction. An IN_PROGRESS claim therefore never has a committed order
+ * behind it, and a stale claim left by a crash can be taken over safely. The
+ * completion is fenced on claimed_at, so a slow owner whose claim was taken
+ * over rolls its order back instead of completing a second one.
+ */
+@Service
+public class OrderIdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<String, Completed> completed;
+    private final int maxEntries;
+
+    @Autowired
+    private OrderIdempotencyKeyRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${orders.idempotency.stale-claim-seconds:120}")
+    private long staleClaimSeconds;
+
+    public OrderIdempotencyService(@Value("${orders.idempotency.max-in-memory:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.completed = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > OrderIdempotencyService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Run placeOrder at most once per (userId, key); repeats return the original OrderDTO.
+     */
+    public OrderDTO execute(Long userId, String key, String fingerprint, Supplier<OrderDTO> placeOrder) {
+        String cacheKey = userId + ":" + key;
+        OrderDTO cached = cachedResponse(cacheKey, fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+
+        ReentrantLock lock = locks[Math.floorMod(cacheKey.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            // A duplicate that waited on the lock finds the first request's result here
+            cached = cachedResponse(cacheKey, fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+
+            OrderIdempotencyKey claim = claim(userId, key, fingerprint);
+            if (claim.getResponse() != null) {
+                OrderDTO original = readResponse(claim.getResponse());
+                remember(cacheKey, fingerprint, original);
+                return original;
+            }
+
+            OrderDTO order;
+            try {
+                order = transactionTemplate.execute(status -> {
+                    OrderDTO placed = placeOrder.get();
+                    if (repository.complete(claim.getId(), claim.getClaimedAt(), placed.getId(), writeResponse(placed)) == 0) {
+                        throw new IdempotencyKeyException("A request with this Idempotency-Key is already in progress", 409);
+                    }
+                    return placed;
+                });
+            } catch (RuntimeException e) {
+                // Nothing was committed: free the key so the client can retry
+                repository.release(claim.getId(), claim.getClaimedAt());
+                throw e;
+            }
+
+            remember(cacheKey, fingerprint, order);
+            return order;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a fresh claim owned by this request, or a completed claim carrying
+     * the original response. Throws when another request holds the key.
+     */
+    private OrderIdempotencyKey claim(Long userId, String key, String fingerprint) {
+        // Whole seconds, so the fencing comparison on claimed_at survives the column's precision
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Optional<OrderIdempotencyKey> existing = repository.findByUserIdAndIdempotencyKey(userId, key);
+        if (existing.isEmpty()) {
+            try {
+                return repository.saveAndFlush(OrderIdempotencyKey.builder()
+                        .userId(userId)
+                        .idempotencyKey(key)
+                        .fingerprint(fingerprint)
+                        .claimedAt(now)
+                        .expiresAt(now.plusHours(ttlHours))
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the same key first
+                throw new IdempotencyKeyException("A request with this Idempotency-Key is already in progress", 409);
+            }
+        }
+
+        OrderIdempotencyKey found = existing.get();
+        if (!found.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyException("Idempotency-Key was already used for a different request", 422);
+        }
+        if ("COMPLETED".equals(found.getStatus())) {
+            return found;
+        }
+        if (repository.reclaimStale(found.getId(), now, now.minusSeconds(staleClaimSeconds)) == 1) {
+            log.warn("⚠️  Taking over stale idempotency claim {} for user {}", key, userId);
+            found.setClaimedAt(now);
+            return found;
+        }
+        throw new IdempotencyKeyException("A request with this Idempotency-Key is already in progress", 409);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval-ms:600000}")
+    public void purgeExpiredKeys() {
+        int removed = repository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.debug("🧹 Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private synchronized OrderDTO cachedResponse(String cacheKey, String fingerprint) {
+        Completed entry = completed.get(cacheKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            completed.remove(cacheKey);
+            return null;
+        }
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyException("Idempotency-Key was already used for a different request", 422);
+        }
+        return entry.order();
+    }
+
+    private synchronized void remember(String cacheKey, String fingerprint, OrderDTO order) {
+        completed.put(cacheKey, new Completed(fingerprint, order,
+                System.currentTimeMillis() + ttlHours * 3_600_000L));
+    }
+
+    private String writeResponse(OrderDTO order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order " + order.getId(), e);
+        }
+    }
+
+    private OrderDTO readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt idempotency response", e);
+        }
+    }
+
+    private record Completed(String fingerprint, OrderDTO order, long expiresAt) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.client.MedicineClient;
+import com.medicart.cartorders.entity.OrderOutboxEvent;
+import com.medicart.cartorders.repository.OrderOutboxRepository;
+import com.medicart.common.dto.StockAdjustmentRequestDTO;
+import com.medicart.common.dto.StockAdjustmentResultDTO;
+
+/**
+ * Drains the order outbox in batches. Each stock decrement becomes one bulk call
+ * to the catalogue; all stock releases claimed together share a single call,
+ * falling back to one call per release when that call fails.
+ * Every event carries a deterministic requestId, so redelivery after a crash or
+ * a timed-out response is applied only once. Failed events are retried with
+ * exponential backoff and parked as DEAD after the last attempt.
+ *
+ * No transaction is open while the catalogue is called: due rows are claimed
+ * as IN_FLIGHT with a lease in one short transaction, delivered, and their
+ * outcomes recorded in another. A row whose dispatcher dies is claimed again
+ * once its lease runs out; an outcome is only recorded if the row is still
+ * held under the same lease (cancellation may have skipped it meanwhile).
+ */
+@Component
+public class OrderOutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxDispatcher.class);
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private MedicineClient medicineClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${orders.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orders.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${orders.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    // Must outlast delivering a whole batch (calls x Feign timeouts)
+    @Value("${orders.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // Whole seconds, so the lease compares equal after the round trip through the column
+        LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000L).truncatedTo(ChronoUnit.SECONDS);
+        List<OrderOutboxEvent> events = transactionTemplate.execute(status -> claim(now, leaseUntil));
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Event id -> failure; events without an entry were delivered
+        Map<Long, Exception> failures = new HashMap<>();
+        List<OrderOutboxEvent> releases = new ArrayList<>();
+        for (OrderOutboxEvent event : events) {
+            if (OrderOutboxService.STOCK_RELEASE.equals(event.getEventType())) {
+                releases.add(event);
+                continue;
+            }
+            try {
+                deliverDecrement(event);
+            } catch (Exception e) {
+                failures.put(event.getId(), e);
+            }
+        }
+        if (!releases.isEmpty()) {
+            deliverReleases(releases, failures);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> record(events, leaseUntil, failures));
+    }
+
+    private List<OrderOutboxEvent> claim(LocalDateTime now, LocalDateTime leaseUntil) {
+        List<OrderOutboxEvent> events = orderOutboxRepository.claimDue(now, PageRequest.of(0, batchSize));
+        for (OrderOutboxEvent event : events) {
+            if ("IN_FLIGHT".equals(event.getStatus())) {
+                log.warn("⚠️  Outbox event {} lease expired, delivering again", event.getId());
+            }
+            event.setStatus("IN_FLIGHT");
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(leaseUntil);
+        }
+        return events;
+    }
+
+    private void record(List<OrderOutboxEvent> delivered, LocalDateTime leaseUntil, Map<Long, Exception> failures) {
+        List<Long> ids = delivered.stream().map(OrderOutboxEvent::getId).toList();
+        for (OrderOutboxEvent event : orderOutboxRepository.lockByIds(ids)) {
+            if (!"IN_FLIGHT".equals(event.getStatus()) || !leaseUntil.equals(event.getNextAttemptAt())) {
+                // Skipped by a cancellation, or our lease ran out and another dispatcher owns it
+                continue;
+            }
+            Exception failure = failures.get(event.getId());
+            if (failure == null) {
+                markSent(event);
+            } else {
+                scheduleRetry(event, failure);
+            }
+        }
+    }
+
+    private void deliverDecrement(OrderOutboxEvent event) throws Exception {
+        if (!OrderOutboxService.STOCK_DECREMENT.equals(event.getEventType())) {
+            throw new IllegalStateException("Unknown outbox event type " + event.getEventType());
+        }
+        StockAdjustmentResultDTO result = medicineClient.reduceBatchQuantities(toRequest(event));
+        if (result.getShortfalls() != null && !result.getShortfalls().isEmpty()) {
+            log.warn("⚠️  Stock decrement for order {} was short on batches: {}",
+                    event.getOrderId(), result.getShortfalls());
+        }
+    }
+
+    // All releases of this batch go out in one catalogue call (each keeps its own requestId).
+    // The catalogue applies a call in one transaction, so if it fails each release is
+    // sent on its own: one poison request only delays itself, not the whole batch.
+    private void deliverReleases(List<OrderOutboxEvent> releases, Map<Long, Exception> failures) {
+        try {
+            List<StockAdjustmentRequestDTO> requests = new ArrayList<>(releases.size());
+            for (OrderOutboxEvent event : releases) {
+                requests.add(toRequest(event));
+            }
+            medicineClient.releaseBatchQuantities(requests);
+        } catch (Exception e) {
+            if (releases.size() == 1) {
+                failures.put(releases.get(0).getId(), e);
+                return;
+            }
+            log.warn("⚠️  Bulk release of {} events failed, delivering one by one: {}", releases.size(), e.getMessage());
+            for (OrderOutboxEvent event : releases) {
+                try {
+                    medicineClient.releaseBatchQuantities(List.of(toRequest(event)));
+                } catch (Exception single) {
+                    failures.put(event.getId(), single);
+                }
+            }
+        }
+    }
+
+    private StockAdjustmentRequestDTO toRequest(OrderOutboxEvent event) throws Exception {
+        return StockAdjustmentRequestDTO.builder()
+                .requestId(requestId(event.getEventType(), event.getOrderId()))
+                .lines(objectMapper.readValue(event.getPayload(), OrderOutboxService.LINES_TYPE))
+                // A release undoes exactly what the order's decrement took (shortfalls excluded)
+                .reverses(OrderOutboxService.STOCK_RELEASE.equals(event.getEventType())
+                        ? requestId(OrderOutboxService.STOCK_DECREMENT, event.getOrderId()) : null)
+                .build();
+    }
+
+    private static String requestId(String eventType, Long orderId) {
+        return eventType + ":" + orderId;
+    }
+
+    private void markSent(OrderOutboxEvent event) {
+        event.setStatus("SENT");
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+
+    private void scheduleRetry(OrderOutboxEvent event, Exception e) {
+        int attempts = event.getAttempts();
+        event.setLastError(truncate(e.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus("DEAD");
+            log.error("❌ Outbox event {} ({} for order {}) is DEAD after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getOrderId(), attempts, e.getMessage());
+            return;
+        }
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        event.setStatus("PENDING");
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000L));
+        log.warn("⚠️  Outbox event {} failed (attempt {}), retrying in {} ms: {}",
+                event.getId(), attempts, delayMs, e.getMessage());
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,123 @@
+package com.medicart.cartorders.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.cartorders.entity.Order;
+import com.medicart.cartorders.entity.OrderItem;
+import com.medicart.cartorders.entity.OrderOutboxEvent;
+import com.medicart.cartorders.repository.OrderOutboxRepository;
+import com.medicart.common.dto.StockAdjustmentRequestDTO;
+
+/**
+ * Writes outbox events. Must run inside the caller's transaction so the event
+ * commits (or rolls back) together with the order change that produced it.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderOutboxService {
+    public static final String STOCK_DECREMENT = "STOCK_DECREMENT";
+    public static final String STOCK_RELEASE = "STOCK_RELEASE";
+
+    static final TypeReference<List<StockAdjustmentRequestDTO.Line>> LINES_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Queue the per-batch stock decrement for a confirmed order.
+     */
+    public void enqueueStockDecrement(Order order) {
+        enqueue(STOCK_DECREMENT, order.getId(), batchLines(order));
+    }
+
+    /**
+     * Queue stock releases for cancelled orders that had already been decremented.
+     * Each release names the order's decrement, and the catalogue gives back what
+     * that decrement actually took, so a short decrement is not over-released;
+     * the lines here are only a fallback for decrements recorded before that.
+     * Rows are inserted with one batched statement (ids are assigned client-side).
+     */
+    public void enqueueStockReleases(List<Order> orders) {
+        List<OrderOutboxEvent> events = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<StockAdjustmentRequestDTO.Line> lines = batchLines(order);
+            if (!lines.isEmpty()) {
+                events.add(event(STOCK_RELEASE, order.getId(), lines));
+            }
+        }
+        orderOutboxRepository.saveAll(events);
+    }
+
+    /**
+     * Withdraw stock decrements of these orders that were not delivered
+     * (PENDING, IN_FLIGHT at a dispatcher, or DEAD after the last retry). Returns the order ids whose
+     * decrement was never attempted: their stock was never taken, so
+     * cancelling them needs no release. A decrement that was attempted may
+     * have been applied with only the response lost, so its order still gets
+     * a release; the catalogue turns that into a no-op if nothing was taken.
+     */
+    public List<Long> skipUndeliveredDecrements(Collection<Long> orderIds) {
+        List<OrderOutboxRepository.UndeliveredRef> undelivered =
+                orderOutboxRepository.lockUndelivered(orderIds, STOCK_DECREMENT);
+        if (undelivered.isEmpty()) {
+            return List.of();
+        }
+        orderOutboxRepository.markSkipped(
+                undelivered.stream().map(OrderOutboxRepository.UndeliveredRef::getOrderId).toList(),
+                STOCK_DECREMENT, LocalDateTime.now());
+        return undelivered.stream()
+                .filter(ref -> ref.getAttempts() == null || ref.getAttempts() == 0)
+                .map(OrderOutboxRepository.UndeliveredRef::getOrderId)
+                .toList();
+    }
+
+    private void enqueue(String eventType, Long orderId, List<StockAdjustmentRequestDTO.Line> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        orderOutboxRepository.save(event(eventType, orderId, lines));
+    }
+
+    private OrderOutboxEvent event(String eventType, Long orderId, List<StockAdjustmentRequestDTO.Line> lines) {
+        try {
+            return OrderOutboxEvent.builder()
+                    .eventType(eventType)
+                    .orderId(orderId)
+                    .payload(objectMapper.writeValueAsString(lines))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload for order " + orderId, e);
+        }
+    }
+
+    // One line per batch; an order can hold several items from the same batch
+    private List<StockAdjustmentRequestDTO.Line> batchLines(Order order) {
+        Map<Long, Integer> perBatch = new LinkedHashMap<>();
+        if (order.getItems() != null) {
+            for (OrderItem item : order.getItems()) {
+                if (item.getBatchId() != null) {
+                    perBatch.merge(item.getBatchId(), item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        return perBatch.entrySet().stream()
+                .map(e -> StockAdjustmentRequestDTO.Line.builder().batchId(e.getKey()).quantity(e.getValue()).build())
+                .toList();
+    }
+}
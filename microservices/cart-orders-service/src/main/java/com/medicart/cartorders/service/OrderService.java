@@ -3,20 +3,27 @@ package com.medicart.cartorders.service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.medicart.cartorders.client.MedicineClient;
 import com.medicart.cartorders.entity.CartItem;
 import com.medicart.cartorders.entity.Order;
 import com.medicart.cartorders.entity.OrderItem;
+import com.medicart.cartorders.entity.OrderStatus;
+import com.medicart.cartorders.event.OrderPlacedEvent;
+import com.medicart.cartorders.event.OrderStatusChangedEvent;
+import com.medicart.cartorders.id.SnowflakeIdGenerator;
 import com.medicart.cartorders.repository.CartItemRepository;
 import com.medicart.cartorders.repository.OrderRepository;
-import com.medicart.common.dto.BatchDTO;
 import com.medicart.common.dto.OrderDTO;
+import com.medicart.common.dto.OrderStatusBulkResultDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
 
 @Service
 @Transactional
@@ -28,15 +35,35 @@ public class OrderService {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private MedicineClient medicineClient;
+    private CheckoutQuoteService checkoutQuoteService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private StockAllocator stockAllocator;
+
+    @Autowired
+    private OrderOutboxService orderOutboxService;
+
+    @Autowired
+    private SnowflakeIdGenerator idGenerator;
+
+    @Autowired
+    private OrderCancellationService orderCancellationService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * FIFO STOCK ALLOCATION ALGORITHM
-     * 1. Get all batches for ordered medicine sorted by expiry date (earliest first)
-     * 2. Allocate stock from batch with earliest expiry date
-     * 3. If quantity exceeds batch availability, move to next batch
-     * 4. Create order items with batch information
-     * 5. Clear cart and persist order
+     * 1. Send every cart line to the catalogue in one allocation request
+     * 2. The catalogue splits each line across batches by expiry date (earliest first)
+     * 3. Create order items with batch information from the returned splits
+     * 4. Persist order (cart is cleared after payment)
      */
     public OrderDTO placeOrder(Long userId, Long addressId) {
         // Get user's cart
@@ -50,54 +77,36 @@ public class OrderService {
         Double totalAmount = 0.0;
         Order order = Order.builder()
                 .userId(userId)
+                .orderNumber(idGenerator.nextOrderNumber())
                 .addressId(addressId)
                 .orderDate(LocalDateTime.now())
                 .status("PENDING")
                 .build();
 
+        Map<Long, CartItem> cartByMedicine = cartItems.stream()
+                .collect(Collectors.toMap(CartItem::getMedicineId, Function.identity()));
+
         List<OrderItem> orderItems = new ArrayList<>();
 
-        // Process each cart item with FIFO allocation
-        for (CartItem cartItem : cartItems) {
-            int remainingQuantity = cartItem.getQuantity();
-
-            // Get available batches sorted by expiry date (FIFO)
-            List<BatchDTO> availableBatches = medicineClient.getAvailableBatches(cartItem.getMedicineId());
-
-            if (availableBatches == null || availableBatches.isEmpty()) {
-                throw new RuntimeException("Medicine " + cartItem.getMedicineId() + " is out of stock");
-            }
-
-            // Allocate from batches in FIFO order (earliest expiry first)
-            for (BatchDTO batch : availableBatches) {
-                if (remainingQuantity <= 0) break;
-
-                int allocatedQty = Math.min(remainingQuantity, batch.getQtyAvailable());
-                Double pricePerUnit = cartItem.getPrice();
-                Double itemSubtotal = pricePerUnit * allocatedQty;
-
-                // Create order item
-                OrderItem orderItem = OrderItem.builder()
-                        .order(order)
-                        .medicineId(cartItem.getMedicineId())
-                        .quantity(allocatedQty)
-                        .priceAtPurchase(cartItem.getPrice())
-                        .unitPrice(pricePerUnit)
-                        .subtotal(itemSubtotal)
-                        .batchId(batch.getId())
-                        .build();
-
-                orderItems.add(orderItem);
-                totalAmount += itemSubtotal;
-                remainingQuantity -= allocatedQty;
-            }
-
-            // Check if all quantity was allocated
-            if (remainingQuantity > 0) {
-                throw new RuntimeException("Insufficient stock for medicine " + cartItem.getMedicineId() +
-                        ". Requested: " + cartItem.getQuantity() + ", Available: " + 
-                        (cartItem.getQuantity() - remainingQuantity));
-            }
+        // One catalogue call allocates all lines (throws if any line is short)
+        for (StockAllocationResultDTO.Split split : stockAllocator.allocate(cartItems)) {
+            CartItem cartItem = cartByMedicine.get(split.getMedicineId());
+            Double pricePerUnit = cartItem.getPrice();
+            Double itemSubtotal = pricePerUnit * split.getQuantity();
+
+            // Create order item
+            OrderItem orderItem = OrderItem.builder()
+                    .order(order)
+                    .medicineId(split.getMedicineId())
+                    .quantity(split.getQuantity())
+                    .priceAtPurchase(cartItem.getPrice())
+                    .unitPrice(pricePerUnit)
+                    .subtotal(itemSubtotal)
+                    .batchId(split.getBatchId())
+                    .build();
+
+            orderItems.add(orderItem);
+            totalAmount += itemSubtotal;
         }
 
         // Save order
@@ -110,80 +119,158 @@ public class OrderService {
         // This allows user to see cart items on payment page
         // cartItemRepository.deleteByUserId(userId);
 
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), userId));
         return convertToDTO(order);
     }
 
     /**
-     * Get user's orders
+     * Place order from a checkout quote
+     * Lines, batches and prices were fixed when the quote was created, so no
+     * catalogue call is needed here. Without a quote this falls back to live FIFO allocation.
      */
-    public List<OrderDTO> getUserOrders(Long userId) {
-        return orderRepository.findByUserIdOrderByOrderDateDesc(userId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public OrderDTO placeOrder(Long userId, Long addressId, String quoteId) {
+        if (quoteId == null) {
+            return placeOrder(userId, addressId);
+        }
+
+        CheckoutQuoteStore.Snapshot quote = checkoutQuoteService.requireActive(quoteId, userId);
+        Long deliveryAddressId = addressId != null ? addressId : quote.addressId();
+        if (deliveryAddressId == null) {
+            throw new RuntimeException("Missing addressId for quote " + quoteId);
+        }
+
+        Order order = Order.builder()
+                .userId(userId)
+                .orderNumber(idGenerator.nextOrderNumber())
+                .addressId(deliveryAddressId)
+                .orderDate(LocalDateTime.now())
+                .status("PENDING")
+                .totalAmount(quote.totalAmount())
+                .build();
+
+        List<OrderItem> orderItems = new ArrayList<>(quote.lineCount());
+        for (int i = 0; i < quote.lineCount(); i++) {
+            double unitPrice = quote.unitPrices()[i];
+            orderItems.add(OrderItem.builder()
+                    .order(order)
+                    .medicineId(quote.medicineIds()[i])
+                    .quantity(quote.quantities()[i])
+                    .priceAtPurchase(unitPrice)
+                    .unitPrice(unitPrice)
+                    .subtotal(unitPrice * quote.quantities()[i])
+                    .batchId(quote.batchIds()[i])
+                    .build());
+        }
+
+        order.setItems(orderItems);
+        order = orderRepository.save(order);
+
+        // Fails (and rolls the order back) if the quote expired or was consumed concurrently
+        checkoutQuoteService.markOrdered(quoteId, order.getId());
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), userId));
+        return convertToDTO(order);
     }
 
     /**
      * Get order details
      */
     public OrderDTO getOrderById(Long orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
+        // Finished orders move to the archive tables after a while; read through to them
+        OrderDTO order = orderRepository.findById(orderId)
+                .map(this::convertToDTO)
+                .or(() -> orderArchiveService.findArchivedOrder(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to view this order");
         }
 
-        return convertToDTO(order);
+        return order;
     }
 
     /**
-     * Update order status
+     * Update order status (customer route)
+     * Customers may only cancel: CANCELLED is routed through cancelOrder so stock
+     * is given back. CONFIRMED is set by finalizePayment only, and shipping
+     * statuses by the admin API, so every other target is rejected.
      */
     public OrderDTO updateOrderStatus(Long orderId, String status, Long userId) {
+        OrderStatus target = OrderStatus.parse(status);
+        if (target == OrderStatus.CANCELLED) {
+            return cancelOrder(orderId, userId);
+        }
+        if (target == OrderStatus.CONFIRMED) {
+            throw new IllegalArgumentException("Orders are confirmed by payment finalization only");
+        }
+
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to update this order");
         }
+        if (!OrderStatus.parse(order.getStatus()).canTransitionTo(target)) {
+            throw new IllegalStateException("Order " + orderId + " cannot move from " + order.getStatus() + " to " + target);
+        }
+        throw new ForbiddenException("Only the admin API can move an order to " + target);
+    }
 
-        order.setStatus(status);
-        order = orderRepository.save(order);
+    /**
+     * Cancel one of the user's orders and release its stock
+     * Idempotent: cancelling a CANCELLED order returns it unchanged.
+     */
+    public OrderDTO cancelOrder(Long orderId, Long userId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        return convertToDTO(order);
+        if (!order.getUserId().equals(userId)) {
+            throw new RuntimeException("Unauthorized to cancel this order");
+        }
+
+        String previousStatus = order.getStatus();
+        OrderStatusBulkResultDTO result = orderCancellationService.cancelOrders(List.of(orderId));
+        if (result.getUpdated().isEmpty() && !OrderStatus.CANCELLED.name().equals(previousStatus)) {
+            throw new RuntimeException("Order " + orderId + " cannot be cancelled from status " + previousStatus);
+        }
+
+        // The bulk UPDATE cleared the persistence context: read the cancelled order again
+        return convertToDTO(orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found")));
     }
 
     /**
-     * Finalize payment: Update order status and reduce batch quantities
-     * Called by PaymentService after payment succeeds
+     * Finalize payment: PENDING -> CONFIRMED, plus an outbox event for the stock decrement
+     * Called by PaymentService after payment succeeds. Idempotent: finalizing an
+     * already CONFIRMED order is a no-op, so retries never decrement stock twice.
+     * Batch quantities are reduced later by OrderOutboxDispatcher.
+     * The ordered medicines leave the cart in the same transaction; lines added
+     * after checkout are kept, however late the confirmation arrives.
      */
     @Transactional
     public void finalizePayment(Long orderId, Long userId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.getUserId().equals(userId)) {
             throw new RuntimeException("Unauthorized to finalize this order");
         }
 
-        // Update order status to CONFIRMED
+        if ("CONFIRMED".equals(order.getStatus())) {
+            return;
+        }
+        if (!"PENDING".equals(order.getStatus())) {
+            throw new RuntimeException("Order " + orderId + " cannot be finalized from status " + order.getStatus());
+        }
+
+        // Update order status to CONFIRMED; the outbox row commits with it
         order.setStatus("CONFIRMED");
         orderRepository.save(order);
-
-        // Reduce batch quantities for each item in the order
-        if (order.getItems() != null && !order.getItems().isEmpty()) {
-            for (OrderItem item : order.getItems()) {
-                try {
-                    // Call admin-catalogue-service to reduce batch quantity
-                    medicineClient.reduceBatchQuantity(item.getBatchId(), item.getQuantity());
-                } catch (Exception e) {
-                    // Log warning but don't fail the transaction
-                    System.err.println("⚠️  Warning: Failed to reduce batch quantity for batch " + 
-                            item.getBatchId() + ": " + e.getMessage());
-                }
-            }
-        }
+        orderOutboxService.enqueueStockDecrement(order);
+        cartService.removeMedicines(userId, order.getItems().stream()
+                .map(OrderItem::getMedicineId)
+                .collect(Collectors.toSet()));
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(orderId, userId, "CONFIRMED"));
     }
 
     private OrderDTO convertToDTO(Order order) {
@@ -0,0 +1,48 @@
+package com.medicart.cartorders.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.medicart.cartorders.client.MedicineClient;
+import com.medicart.cartorders.entity.CartItem;
+import com.medicart.common.dto.StockAllocationRequestDTO;
+import com.medicart.common.dto.StockAllocationResultDTO;
+
+/**
+ * FIFO allocation for a whole cart in a single catalogue round trip.
+ * The catalogue picks batches next to the data (earliest expiry first), so
+ * cart-orders-service no longer downloads batch lists per medicine.
+ */
+@Component
+public class StockAllocator {
+
+    @Autowired
+    private MedicineClient medicineClient;
+
+    /**
+     * Returns the per-batch splits for the cart, or throws if any line cannot be covered.
+     * Nothing is reserved: stock is taken when the payment is finalized.
+     */
+    public List<StockAllocationResultDTO.Split> allocate(List<CartItem> cartItems) {
+        StockAllocationRequestDTO request = StockAllocationRequestDTO.builder()
+                .lines(cartItems.stream()
+                        .map(item -> StockAllocationRequestDTO.Line.builder()
+                                .medicineId(item.getMedicineId())
+                                .quantity(item.getQuantity())
+                                .build())
+                        .toList())
+                .reserve(false)
+                .build();
+
+        StockAllocationResultDTO result = medicineClient.allocateStock(request);
+
+        if (!Boolean.TRUE.equals(result.getFulfilled())) {
+            StockAllocationResultDTO.Shortfall shortfall = result.getShortfalls().get(0);
+            throw new RuntimeException("Insufficient stock for medicine " + shortfall.getMedicineId() +
+                    ". Requested: " + shortfall.getRequested() + ", Available: " + shortfall.getAvailable());
+        }
+        return result.getSplits();
+    }
+}
@@ -0,0 +1,272 @@
+package com.medicart.cartorders.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import com.medicart.cartorders.repository.OrderRepository;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Insert batching for orders and order items.
+ *
+ * The mapping check always runs: an IDENTITY id makes Hibernate insert row by
+ * row, which would silently undo hibernate.jdbc.batch_size.
+ *
+ * The benchmark needs a MySQL and only runs when one is given:
+ *   mvn test -Dtest=OrderInsertBatchingBenchmarkTest \
+ *       -Dbenchmark.mysql.url=jdbc:mysql://localhost:3306/cart_orders_bench
+ * (optionally -Dbenchmark.mysql.user / -Dbenchmark.mysql.password). The schema
+ * must be a scratch one: its tables are created and dropped by the run. It
+ * saves 50-line orders through OrderRepository (TABLE ids, as mapped) and
+ * through an otherwise identical IDENTITY-mapped copy, with the service's
+ * batching settings, and compares per order: statements Hibernate prepared,
+ * INSERTs MySQL executed, and the time taken.
+ */
+class OrderInsertBatchingBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderInsertBatchingBenchmarkTest.class);
+
+    private static final int ORDERS = 200;
+    private static final int WARM_UP_ORDERS = 20;
+    private static final int LINES_PER_ORDER = 50;
+
+    private static SessionFactory sessionFactory;
+
+    @Test
+    void orderEntitiesUseBatchableIdGeneration() throws NoSuchFieldException {
+        assertEquals(GenerationType.TABLE,
+                Order.class.getDeclaredField("id").getAnnotation(GeneratedValue.class).strategy());
+        assertEquals(GenerationType.TABLE,
+                OrderItem.class.getDeclaredField("id").getAnnotation(GeneratedValue.class).strategy());
+    }
+
+    @BeforeAll
+    static void connect() {
+        String url = System.getProperty("benchmark.mysql.url");
+        if (url == null) {
+            return;
+        }
+        // Same batching settings as application.properties
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(OrderItem.class)
+                .addAnnotatedClass(OrderHistoryEntry.class)
+                .addAnnotatedClass(IdentityOrder.class)
+                .addAnnotatedClass(IdentityOrderItem.class)
+                .setProperty("hibernate.connection.url", url
+                        + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true")
+                .setProperty("hibernate.connection.username", System.getProperty("benchmark.mysql.user", "root"))
+                .setProperty("hibernate.connection.password", System.getProperty("benchmark.mysql.password", "admin"))
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.mysql.url", matches = ".+")
+    void tableIdsBatchOrderInsertsThatIdentityIdsCannot() {
+        Run table = run("TABLE", OrderRepository.class, this::tableOrder);
+        Run identity = run("IDENTITY", IdentityOrderRepository.class, this::identityOrder);
+
+        assertEquals(LINES_PER_ORDER + 1, table.insertsPerOrder(), "every order and line should be inserted");
+        assertEquals(LINES_PER_ORDER + 1, identity.insertsPerOrder(), "every order and line should be inserted");
+        // One statement per entity type, plus the occasional id block reservation
+        assertTrue(table.preparedPerOrder() < 10,
+                "TABLE ids should batch the inserts, prepared " + table.preparedPerOrder() + " statements per order");
+        assertTrue(identity.preparedPerOrder() >= LINES_PER_ORDER + 1,
+                "IDENTITY ids insert row by row, prepared " + identity.preparedPerOrder() + " statements per order");
+        assertTrue(table.sentPerOrder() < identity.sentPerOrder(),
+                "TABLE ids should send fewer INSERTs: " + table + " vs " + identity);
+    }
+
+    private <T> Run run(String label, Class<? extends JpaRepository<T, Long>> repositoryType,
+                        Function<Integer, T> newOrder) {
+        Statistics statistics = sessionFactory.getStatistics();
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            JpaRepository<T, Long> repository = new JpaRepositoryFactory(entityManager).getRepository(repositoryType);
+
+            // Warm-up round so both mappings start with a hot connection, buffer pool and id block
+            for (int i = 0; i < WARM_UP_ORDERS; i++) {
+                T order = newOrder.apply(i);
+                inTransaction(entityManager, em -> repository.save(order));
+            }
+
+            statistics.clear();
+            long sent = 0;
+            long start = System.nanoTime();
+            for (int i = WARM_UP_ORDERS; i < WARM_UP_ORDERS + ORDERS; i++) {
+                T order = newOrder.apply(i);
+                long[] insertsSent = new long[1];
+                inTransaction(entityManager, em -> {
+                    long before = comInsert(em);
+                    repository.saveAndFlush(order);
+                    insertsSent[0] = comInsert(em) - before;
+                });
+                sent += insertsSent[0];
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Run run = new Run(label, (double) statistics.getPrepareStatementCount() / ORDERS,
+                    (double) sent / ORDERS, statistics.getEntityInsertCount() / ORDERS,
+                    ORDERS * (LINES_PER_ORDER + 1) / (elapsedNanos / 1e9));
+            log.info("📊 {}", run);
+            return run;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void inTransaction(EntityManager entityManager, Consumer<EntityManager> work) {
+        entityManager.getTransaction().begin();
+        try {
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } catch (RuntimeException e) {
+            entityManager.getTransaction().rollback();
+            throw e;
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    // INSERT statements this connection has executed; a rewritten batch counts once
+    private long comInsert(EntityManager entityManager) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW SESSION STATUS LIKE 'Com_insert'")) {
+                status.next();
+                return status.getLong(2);
+            }
+        });
+    }
+
+    private Order tableOrder(int n) {
+        Order order = Order.builder()
+                .userId(1L)
+                .orderNumber("BENCH-TABLE-" + n)
+                .totalAmount(LINES_PER_ORDER * 19.0)
+                .addressId(1L)
+                .items(new ArrayList<>())
+                .build();
+        for (int line = 0; line < LINES_PER_ORDER; line++) {
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .medicineId(line + 1L)
+                    .quantity(2)
+                    .priceAtPurchase(9.5)
+                    .unitPrice(9.5)
+                    .subtotal(19.0)
+                    .batchId(line + 1L)
+                    .build());
+        }
+        return order;
+    }
+
+    private IdentityOrder identityOrder(int n) {
+        IdentityOrder order = new IdentityOrder();
+        order.setUserId(1L);
+        order.setOrderNumber("BENCH-IDENTITY-" + n);
+        order.setTotalAmount(LINES_PER_ORDER * 19.0);
+        for (int line = 0; line < LINES_PER_ORDER; line++) {
+            IdentityOrderItem item = new IdentityOrderItem();
+            item.setOrder(order);
+            item.setMedicineId(line + 1L);
+            item.setQuantity(2);
+            item.setUnitPrice(9.5);
+            item.setSubtotal(19.0);
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    private record Run(String mapping, double preparedPerOrder, double sentPerOrder, long insertsPerOrder,
+                       double rowsPerSecond) {
+        @Override
+        public String toString() {
+            return String.format("%s ids: %.1f statements prepared, %.1f INSERTs sent, %d rows per order, %.0f rows/sec",
+                    mapping, preparedPerOrder, sentPerOrder, insertsPerOrder, rowsPerSecond);
+        }
+    }
+
+    interface IdentityOrderRepository extends JpaRepository<IdentityOrder, Long> {
+    }
+
+    // The same order shape with IDENTITY ids, for comparison only
+    @Entity
+    @Table(name = "bench_identity_orders")
+    @Getter
+    @Setter
+    static class IdentityOrder {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private Long userId;
+        private String orderNumber;
+        private Double totalAmount;
+
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+        private List<IdentityOrderItem> items = new ArrayList<>();
+    }
+
+    @Entity
+    @Table(name = "bench_identity_order_items")
+    @Getter
+    @Setter
+    static class IdentityOrderItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "order_id", nullable = false)
+        private IdentityOrder order;
+
+        private Long medicineId;
+        private Integer quantity;
+        private Double unitPrice;
+        private Double subtotal;
+    }
+}
@@ -0,0 +1,106 @@
+package com.medicart.cartorders.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The uniqueness, ordering and node tests always run. The throughput check is
+ * wall-clock dependent and only runs on request:
+ *   mvn test -Dtest=SnowflakeIdGeneratorTest -Dbenchmark.snowflake=true
+ */
+class SnowflakeIdGeneratorTest {
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeIdGeneratorTest.class);
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+
+    @Test
+    void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 10_000);
+        long[][] issued = generateConcurrently(generator);
+
+        for (long[] ids : issued) {
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "ids must increase within a thread");
+            }
+        }
+        long[] all = Arrays.stream(issued).flatMapToLong(Arrays::stream).sorted().toArray();
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(all[i] != all[i - 1], "duplicate id " + all[i]);
+        }
+        assertEquals(7, (all[0] >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark.snowflake", matches = "true")
+    void throughputReachesMillionsPerSecond() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 10_000);
+        generateConcurrently(generator); // warm-up
+
+        long start = System.nanoTime();
+        generateConcurrently(generator);
+        long perSecond = (long) (THREADS * (double) IDS_PER_THREAD / ((System.nanoTime() - start) / 1e9));
+        log.info("Snowflake ids/sec with {} threads: {}", THREADS, perSecond);
+        // 4096 ids per millisecond is the ceiling; well below it means contention on the CAS
+        assertTrue(perSecond > 1_000_000, "only " + perSecond + " ids/sec with " + THREADS + " threads");
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1, 10_000);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2, 10_000);
+        long[] ids = new long[20_000];
+        for (int i = 0; i < ids.length; i += 2) {
+            ids[i] = first.nextId();
+            ids[i + 1] = second.nextId();
+        }
+        assertEquals(ids.length, Arrays.stream(ids).distinct().count());
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1, 0));
+    }
+
+    private long[][] generateConcurrently(SnowflakeIdGenerator generator) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            long[][] issued = new long[THREADS][];
+            for (int t = 0; t < THREADS; t++) {
+                issued[t] = futures.get(t).get();
+            }
+            return issued;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
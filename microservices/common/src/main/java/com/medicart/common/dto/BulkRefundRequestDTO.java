@@ -0,0 +1,26 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the SUCCESS payments to refund in one bulk job: either explicit
+ * payment ids, the orders they belong to (e.g. orders of a recalled batch),
+ * or a payment date range with an optional payment method.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundRequestDTO {
+    private List<Long> paymentIds;
+    private List<Long> orderIds;
+    private LocalDateTime paidFrom;
+    private LocalDateTime paidTo;
+    private String paymentMethod;
+    private String reason;
+}
@@ -0,0 +1,27 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a bulk cart mutation (PATCH /api/cart).
+ * ADD increments (or creates) the line for medicineId.
+ * UPDATE sets the quantity of a line, REMOVE deletes it; both accept itemId or medicineId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDTO {
+
+    public enum Type {
+        ADD, UPDATE, REMOVE
+    }
+
+    private Type op;
+    private Long itemId;
+    private Long medicineId;
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryDTO {
+    private Long userId;
+
+    // Number of distinct cart lines (one per medicine)
+    private Long lineCount;
+
+    // Sum of quantities across all lines
+    private Long itemCount;
+
+    private Double total;
+}
@@ -0,0 +1,27 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Price-locked checkout snapshot: cart lines with their chosen batches and totals.
+ * Valid for placing an order until expiresAt; once ORDERED it is bound to orderId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutQuoteDTO {
+    private String id;
+    private Long userId;
+    private Long addressId;
+    private Long orderId;
+    private String status; // ACTIVE, ORDERED
+    private Double totalAmount;
+    private LocalDateTime expiresAt;
+    private List<OrderItemDTO> lines;
+}
@@ -0,0 +1,22 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Minimal order row for payment reconciliation, streamed in order id order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderReconciliationDTO {
+    private Long orderId;
+    private Long userId;
+    private String status;
+    private Double totalAmount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Moves many orders to one status in a single set-based update.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBulkRequestDTO {
+    private List<Long> orderIds;
+    private String status;
+}
@@ -0,0 +1,26 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk status update: orders moved, and orders left untouched
+ * because they were missing or their current status does not allow the move.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBulkResultDTO {
+    private String status;
+
+    @Builder.Default
+    private List<Long> updated = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> skipped = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Slim order row for list screens. itemCount is the number of units ordered
+ * and is computed in SQL, so the order items are never loaded.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private String orderNumber;
+    private LocalDateTime orderDate;
+    private String status;
+    private Double totalAmount;
+    private Long itemCount;
+}
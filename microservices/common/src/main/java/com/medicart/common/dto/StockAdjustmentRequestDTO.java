@@ -0,0 +1,35 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Bulk per-batch stock adjustment sent to admin-catalogue-service.
+ * requestId makes the call idempotent: a repeated requestId is acknowledged
+ * without touching the batches again.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequestDTO {
+    private String requestId;
+    private List<Line> lines;
+
+    // Release only: requestId of the decrement being undone. The catalogue gives
+    // back exactly what that decrement took (lines are then informational), or
+    // revokes it if it was never applied so a late delivery is ignored.
+    private String reverses;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long batchId;
+        private Integer quantity;
+    }
+}
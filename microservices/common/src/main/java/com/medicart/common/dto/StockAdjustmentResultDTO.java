@@ -0,0 +1,26 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk stock adjustment.
+ * applied=false means the requestId was already processed (duplicate delivery).
+ * shortfalls lists the quantity per batch that could not be taken because
+ * the batch had less stock than requested.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResultDTO {
+    private String requestId;
+    private Boolean applied;
+
+    @Builder.Default
+    private List<StockAdjustmentRequestDTO.Line> shortfalls = new ArrayList<>();
+}
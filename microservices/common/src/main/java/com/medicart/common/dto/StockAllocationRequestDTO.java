@@ -0,0 +1,31 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Request for FIFO-by-expiry allocation in admin-catalogue-service.
+ * With reserve=true the allocated quantities are also taken out of the batches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAllocationRequestDTO {
+    private List<Line> lines;
+
+    @Builder.Default
+    private Boolean reserve = false;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long medicineId;
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,47 @@
+package com.medicart.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Per-batch splits for an allocation request.
+ * When fulfilled is false, shortfalls lists the medicines that could not be
+ * covered and nothing was reserved.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAllocationResultDTO {
+    private Boolean fulfilled;
+    private Boolean reserved;
+    private List<Split> splits;
+    private List<Shortfall> shortfalls;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Split {
+        private Long medicineId;
+        private String medicineName;
+        private Long batchId;
+        private String batchNo;
+        private LocalDate expiryDate;
+        private Integer quantity;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shortfall {
+        private Long medicineId;
+        private Integer requested;
+        private Integer available;
+    }
+}
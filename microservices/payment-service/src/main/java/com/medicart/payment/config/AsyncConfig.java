@@ -0,0 +1,93 @@
+package com.medicart.payment.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Drives accepted payments (gateway call, bookkeeping, order follow-ups)
+     * off the request thread. The queue is bounded: when it is full new async
+     * payments are refused instead of piling up.
+     */
+    @Bean(name = "paymentExecutor")
+    public Executor paymentExecutor(
+            @Value("${payment.async.pool-size:8}") int poolSize,
+            @Value("${payment.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-worker-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Single thread for reconciliation runs and no queue: a second run
+     * requested while one is going is refused.
+     */
+    @Bean(name = "reconciliationExecutor")
+    public Executor reconciliationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("payment-reconciliation-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs bulk refund jobs one at a time; further jobs wait in the queue.
+     */
+    @Bean(name = "refundJobExecutor")
+    public Executor refundJobExecutor(@Value("${payment.refund.job-queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("refund-job-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Automatic retries of failed payments. The retry scheduler holds one of
+     * max-concurrent permits per handed-over payment, which is what bounds the
+     * retries hitting the gateway. The queue (as deep as the permits) only
+     * absorbs the gap between a task releasing its permit and its worker
+     * thread going back to take the next task, so a hand-over is never rejected.
+     */
+    @Bean(name = "paymentRetryExecutor")
+    public Executor paymentRetryExecutor(@Value("${payment.retry.max-concurrent:4}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(maxConcurrent);
+        executor.setThreadNamePrefix("payment-retry-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Settlement reports generated on request: one at a time, no queue.
+     */
+    @Bean(name = "settlementReportExecutor")
+    public Executor settlementReportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("settlement-report-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,19 @@
+package com.medicart.payment.config;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FeignConfig {
+
+    /**
+     * Identifies payment-service to the services it calls, which require the
+     * shared token on their internal endpoints.
+     */
+    @Bean
+    public RequestInterceptor internalTokenInterceptor(@Value("${internal.service-token}") String serviceToken) {
+        return template -> template.header("X-Internal-Token", serviceToken);
+    }
+}
@@ -0,0 +1,65 @@
+package com.medicart.payment.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying an auth-service JWT (Authorization: Bearer).
+ * The role comes from the signed "scope" claim, so admin endpoints do not
+ * depend on headers the client can set. Requests without a valid token stay
+ * anonymous and only reach permitAll endpoints.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final SecretKey signingKey;
+
+    public JwtAuthenticationFilter(
+            @Value("${jwt.secret:your-secret-key-min-256-bits-long-for-hs256-algorithm-medicart}") String secret) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            try {
+                Claims claims = Jwts.parser()
+                        .verifyWith(signingKey)
+                        .build()
+                        .parseSignedClaims(header.substring(7))
+                        .getPayload();
+                String role = claims.get("scope", String.class);
+                if (role != null) {
+                    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                            claims.getSubject(), null, List.of(new SimpleGrantedAuthority(role))));
+                }
+            } catch (Exception e) {
+                log.warn("⚠️  [JWT FILTER] Rejected token on {} {}: {}", request.getMethod(),
+                        request.getRequestURI(), e.getMessage());
+                SecurityContextHolder.clearContext();
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
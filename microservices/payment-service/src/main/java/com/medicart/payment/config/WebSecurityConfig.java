@@ -4,17 +4,33 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class WebSecurityConfig {
 
+    private final JwtAuthenticationFilter jwtFilter;
+
+    public WebSecurityConfig(JwtAuthenticationFilter jwtFilter) {
+        this.jwtFilter = jwtFilter;
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authorize -> authorize
+                // Admin operations (JWT with ROLE_ADMIN)
+                .requestMatchers("/api/payment/refunds/**").hasRole("ADMIN")
+                .requestMatchers("/api/payment/reconciliation/**").hasRole("ADMIN")
+                .requestMatchers("/api/payment/reports/**").hasRole("ADMIN")
+                .requestMatchers("/api/payment/outbox/**").hasRole("ADMIN")
+                .requestMatchers("/api/payment/gateway/**").hasRole("ADMIN")
+
                 // Payment endpoints
                 .requestMatchers("POST", "/api/payment/**").permitAll()
                 .requestMatchers("GET", "/api/payment/**").permitAll()
@@ -24,6 +40,7 @@ public class WebSecurityConfig {
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
             .httpBasic(basic -> basic.disable())
             .formLogin(form -> form.disable())
             .logout(logout -> logout.disable());
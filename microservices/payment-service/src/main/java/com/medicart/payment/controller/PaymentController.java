@@ -1,11 +1,15 @@
 package com.medicart.payment.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,9 +20,23 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.medicart.common.dto.BulkRefundRequestDTO;
+import com.medicart.common.dto.CheckoutQuoteDTO;
+import com.medicart.common.dto.CursorPageDTO;
+import com.medicart.common.dto.PaymentDTO;
 import com.medicart.payment.entity.Payment;
+import com.medicart.payment.entity.PaymentOutboxEvent;
+import com.medicart.payment.entity.ReconciliationDiscrepancy;
+import com.medicart.payment.entity.ReconciliationRun;
+import com.medicart.payment.entity.RefundJob;
+import com.medicart.payment.entity.SettlementReport;
 import com.medicart.payment.entity.Transaction;
+import com.medicart.payment.gateway.ResilientPaymentGateway;
+import com.medicart.payment.service.PaymentConflictException;
+import com.medicart.payment.service.BulkRefundService;
 import com.medicart.payment.service.PaymentService;
+import com.medicart.payment.service.ReconciliationService;
+import com.medicart.payment.service.SettlementReportService;
 
 @RestController
 @RequestMapping("/api/payment")
@@ -27,12 +45,32 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private ResilientPaymentGateway paymentGateway;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private BulkRefundService bulkRefundService;
+
+    @Autowired
+    private SettlementReportService settlementReportService;
+
+    @Value("${payment.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${payment.history.max-page-size:200}")
+    private int maxPageSize;
+
     @PostMapping("/process")
     public ResponseEntity<Map<String, Object>> processPayment(
             @RequestHeader(value = "X-User-Id", required = false) Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestParam(required = false) Long orderId,
             @RequestParam(required = false) BigDecimal amount,
             @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) Boolean async,
             @RequestBody(required = false) Map<String, Object> requestBody) {
         try {
             // Extract from query params or request body
@@ -59,6 +97,19 @@ public class PaymentController {
             if (finalUserId == null) {
                 finalUserId = 0L; // Default or extract from JWT token
             }
+
+            // Checkout quote: order id and locked total come from the quote, not the client
+            if (requestBody != null && requestBody.get("quoteId") != null) {
+                CheckoutQuoteDTO quote = paymentService.resolveQuote(requestBody.get("quoteId").toString(), finalUserId);
+                finalOrderId = quote.getOrderId();
+                finalAmount = BigDecimal.valueOf(quote.getTotalAmount());
+            }
+            if (finalOrderId == null) {
+                throw new IllegalArgumentException("Order id is required");
+            }
+            if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+                throw new IllegalArgumentException("Idempotency-Key must be 1-100 characters");
+            }
             if (finalAmount == null || finalAmount.compareTo(BigDecimal.ZERO) <= 0) {
                 throw new IllegalArgumentException("Invalid amount: " + finalAmount);
             }
@@ -66,7 +117,25 @@ public class PaymentController {
                 throw new IllegalArgumentException("Payment method is required");
             }
 
-            Payment payment = paymentService.processPayment(finalOrderId, finalUserId, finalAmount, finalPaymentMethod);
+            boolean asyncMode = Boolean.TRUE.equals(async)
+                    || (requestBody != null && Boolean.parseBoolean(String.valueOf(requestBody.get("async"))));
+            if (asyncMode) {
+                // 202: payment recorded as PROCESSING, outcome via GET /api/payment/{paymentId}
+                Payment accepted = paymentService.submitPayment(finalOrderId, finalUserId, finalAmount, finalPaymentMethod,
+                        idempotencyKey);
+                Map<String, Object> response = new HashMap<>();
+                response.put("paymentId", accepted.getId());
+                response.put("status", accepted.getPaymentStatus());
+                response.put("amount", accepted.getAmount());
+                response.put("transactionId", accepted.getTransactionId());
+                response.put("message", "Payment accepted for processing");
+                return ResponseEntity.accepted()
+                        .header("Location", "/api/payment/" + accepted.getId())
+                        .body(response);
+            }
+
+            Payment payment = paymentService.processPayment(finalOrderId, finalUserId, finalAmount, finalPaymentMethod,
+                    idempotencyKey);
             
             Map<String, Object> response = new HashMap<>();
             response.put("paymentId", payment.getId());
@@ -76,20 +145,20 @@ public class PaymentController {
             response.put("message", "Payment processed successfully");
             
             return ResponseEntity.ok(response);
+        } catch (TaskRejectedException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Payment service is busy. Please try again shortly.");
+            error.put("status", "failed");
+            return ResponseEntity.status(503).body(error);
+        } catch (PaymentConflictException e) {
+            // 409: another attempt for this order is running; 422: Idempotency-Key reused for a different request
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("errorCode", e.getStatus() == 409 ? "DUPLICATE_PAYMENT" : "IDEMPOTENCY_KEY_REUSED");
+            error.put("status", "failed");
+            return ResponseEntity.status(e.getStatus()).body(error);
         } catch (Exception e) {
-            // ✅ Handle duplicate constraint error gracefully
             String errorMsg = e.getMessage() != null ? e.getMessage() : "Payment processing failed";
-            
-            if (errorMsg.contains("Duplicate entry") || errorMsg.contains("unique_order_payment")) {
-                // This is a duplicate payment attempt for same order
-                // Return a friendly error message
-                Map<String, Object> error = new HashMap<>();
-                error.put("error", "Payment already exists for this order. Please wait or refresh and try again.");
-                error.put("errorCode", "DUPLICATE_PAYMENT");
-                error.put("status", "failed");
-                return ResponseEntity.status(409).body(error);  // 409 Conflict
-            }
-            
             Map<String, Object> error = new HashMap<>();
             error.put("error", errorMsg);
             error.put("status", "failed");
@@ -120,12 +189,24 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Payment history, newest first, one page at a time.
+     * The body stays a plain list; the cursor for the next page is returned in
+     * the X-Next-Cursor header and is absent on the last page.
+     */
     @GetMapping("/user/history")
-    public ResponseEntity<List<Payment>> getUserPaymentHistory(
-            @RequestHeader("X-User-Id") Long userId) {
+    public ResponseEntity<List<PaymentDTO>> getUserPaymentHistory(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
         try {
-            List<Payment> payments = paymentService.getUserPayments(userId);
-            return ResponseEntity.ok(payments);
+            CursorPageDTO<PaymentDTO> page = paymentService.getUserPayments(userId, cursor, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+            return response.body(page.getItems());
         } catch (Exception e) {
             return ResponseEntity.status(400).build();
         }
@@ -160,6 +241,158 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Refund many payments as a background job (202). Select by paymentIds,
+     * orderIds, or paidFrom/paidTo (+ paymentMethod); poll the Location for progress.
+     * All /refunds endpoints require an admin JWT (see WebSecurityConfig).
+     */
+    @PostMapping("/refunds/bulk")
+    public ResponseEntity<?> submitBulkRefund(@RequestBody BulkRefundRequestDTO request) {
+        try {
+            RefundJob job = bulkRefundService.submit(request);
+            return ResponseEntity.accepted()
+                    .header("Location", "/api/payment/refunds/bulk/" + job.getId())
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("status", "failed");
+            return ResponseEntity.status(400).body(error);
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("status", "failed");
+            return ResponseEntity.status(503).body(error);
+        }
+    }
+
+    @GetMapping("/refunds/bulk/{jobId}")
+    public ResponseEntity<RefundJob> getBulkRefund(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(bulkRefundService.getJob(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/refunds/bulk/{jobId}/resume")
+    public ResponseEntity<?> resumeBulkRefund(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.accepted().body(bulkRefundService.resume(jobId));
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("status", "failed");
+            return ResponseEntity.status(409).body(error);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Start a payment/order reconciliation run in the background (202).
+     * repair=true re-queues order finalization for paid orders still PENDING.
+     * All /reconciliation endpoints require an admin JWT.
+     */
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<?> startReconciliation(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            ReconciliationRun run = reconciliationService.start(repair);
+            return ResponseEntity.accepted()
+                    .header("Location", "/api/payment/reconciliation/runs/" + run.getId())
+                    .body(run);
+        } catch (IllegalStateException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("status", "failed");
+            return ResponseEntity.status(409).body(error);
+        }
+    }
+
+    @GetMapping("/reconciliation/runs/{runId}")
+    public ResponseEntity<ReconciliationRun> getReconciliationRun(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(reconciliationService.getRun(runId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Discrepancy report of a run, in id order (pass the last id as afterId for the next page).
+     */
+    @GetMapping("/reconciliation/runs/{runId}/discrepancies")
+    public ResponseEntity<List<ReconciliationDiscrepancy>> getReconciliationDiscrepancies(
+            @PathVariable Long runId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(reconciliationService.getDiscrepancies(runId, afterId, limit));
+    }
+
+    /**
+     * Stored settlement report of a day (yyyy-MM-dd). Never aggregates on read.
+     */
+    @GetMapping("/reports/settlement/{date}")
+    public ResponseEntity<SettlementReport> getSettlementReport(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(settlementReportService.getReport(date));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * (Re)generate the settlement report of a day in the background (202).
+     */
+    @PostMapping("/reports/settlement/{date}")
+    public ResponseEntity<Map<String, Object>> generateSettlementReport(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            settlementReportService.start(date);
+            response.put("date", date.toString());
+            response.put("status", "accepted");
+            return ResponseEntity.accepted()
+                    .header("Location", "/api/payment/reports/settlement/" + date)
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            response.put("status", "failed");
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("error", e.getMessage());
+            response.put("status", "failed");
+            return ResponseEntity.status(409).body(response);
+        }
+    }
+
+    /**
+     * Follow-up calls to cart-orders-service that ran out of attempts.
+     */
+    @GetMapping("/outbox/dead")
+    public ResponseEntity<List<PaymentOutboxEvent>> getDeadOutboxEvents(
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(paymentService.getDeadOutboxEvents(limit));
+    }
+
+    @PostMapping("/outbox/retry")
+    public ResponseEntity<Map<String, Object>> retryOutboxEvents(@RequestBody List<Long> eventIds) {
+        int requeued = paymentService.retryOutboxEvents(eventIds);
+        Map<String, Object> response = new HashMap<>();
+        response.put("requested", eventIds == null ? 0 : eventIds.size());
+        response.put("requeued", requeued);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Gateway call counters, latency, bulkhead occupancy and circuit state.
+     */
+    @GetMapping("/gateway/metrics")
+    public ResponseEntity<Map<String, Object>> gatewayMetrics() {
+        return ResponseEntity.ok(paymentGateway.metrics());
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> response = new HashMap<>();
@@ -9,7 +9,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_user_date_id", columnList = "user_id, payment_date, id"),
+    @Index(name = "idx_payments_order_id_status", columnList = "order_id, id, payment_status"),
+    @Index(name = "idx_payments_status_retry", columnList = "payment_status, next_retry_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,9 +42,19 @@ public class Payment {
     @Column(name = "transaction_id")
     private String transactionId;
 
-    @Column(name = "payment_date")
+    // Always set: history pages are keyed on (payment_date, id)
+    @Column(name = "payment_date", nullable = false)
     private LocalDateTime paymentDate;
 
+    // Automatic retries after transient gateway failures (PaymentRetryScheduler)
+    @Column(name = "retry_count")
+    @Builder.Default
+    private Integer retryCount = 0;
+
+    // Set while a FAILED payment is waiting for its next automatic retry
+    @Column(name = "next_retry_at")
+    private LocalDateTime nextRetryAt;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -51,6 +65,9 @@ public class Payment {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (paymentDate == null) {
+            paymentDate = createdAt;
+        }
     }
 
     @PreUpdate
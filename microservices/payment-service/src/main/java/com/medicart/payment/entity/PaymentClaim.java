@@ -0,0 +1,53 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Cross-instance claim on paying an order. One row per order: it is inserted
+ * before the first attempt and taken over (attempt + 1) by later attempts, so
+ * only one instance at a time can run the gateway call for an order.
+ */
+@Entity
+@Table(name = "payment_claims", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payment_claims_order", columnNames = {"order_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentClaim {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Idempotency-Key of the current attempt, null when the client sent none
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    // Identifies the request (order, amount, method), so a key reused for a different request is rejected
+    @Column(nullable = false, length = 200)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "IN_PROGRESS"; // IN_PROGRESS, COMPLETED
+
+    // Bumped on every takeover; updates are conditional on it
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempt = 1;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "claimed_at", nullable = false)
+    private LocalDateTime claimedAt;
+}
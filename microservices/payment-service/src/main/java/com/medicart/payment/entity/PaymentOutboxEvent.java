@@ -0,0 +1,70 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Follow-up call owed to cart-orders-service after a successful payment.
+ * Written in the same transaction that marks the payment SUCCESS, delivered
+ * later by PaymentOutboxDispatcher.
+ */
+@Entity
+@Table(name = "payment_outbox", indexes = {
+    @Index(name = "idx_payment_outbox_status_next", columnList = "status, next_attempt_at, id"),
+    @Index(name = "idx_payment_outbox_payment", columnList = "payment_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 30)
+    private String eventType; // FINALIZE_ORDER
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDING"; // PENDING, IN_FLIGHT, SENT, DEAD
+
+    // Deliveries started, counted when a dispatcher claims the row
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Next retry while PENDING; lease expiry while IN_FLIGHT
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
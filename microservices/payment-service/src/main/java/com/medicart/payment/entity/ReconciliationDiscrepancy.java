@@ -0,0 +1,59 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payment and its order that do not agree, found by a reconciliation run.
+ */
+@Entity
+@Table(name = "reconciliation_discrepancies", indexes = {
+    @Index(name = "idx_recon_discrepancy_run_id", columnList = "run_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(nullable = false, length = 30)
+    private String type; // ORDER_MISSING, ORDER_NOT_CONFIRMED, AMOUNT_MISMATCH, PAYMENT_MISSING
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    private BigDecimal paymentAmount;
+
+    private BigDecimal orderAmount;
+
+    @Column(length = 20)
+    private String orderStatus;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean repairEnqueued = false;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
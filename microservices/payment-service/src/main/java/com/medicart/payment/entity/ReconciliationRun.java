@@ -0,0 +1,60 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One payment/order reconciliation pass. Counters and lastOrderId are saved
+ * while the run progresses, so a long run can be followed from outside.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "RUNNING"; // RUNNING, COMPLETED, FAILED
+
+    // Enqueue FINALIZE_ORDER for paid orders still PENDING
+    @Column(nullable = false)
+    private Boolean repair;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    // Rows changed after this are still settling and are not reported
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Builder.Default
+    private Long paymentsScanned = 0L;
+
+    @Builder.Default
+    private Long ordersScanned = 0L;
+
+    @Builder.Default
+    private Long discrepancies = 0L;
+
+    @Builder.Default
+    private Long repairsEnqueued = 0L;
+
+    @Column(name = "last_order_id")
+    private Long lastOrderId;
+
+    @Column(name = "error", length = 500)
+    private String error;
+}
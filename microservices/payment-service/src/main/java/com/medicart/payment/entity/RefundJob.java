@@ -0,0 +1,83 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bulk refund job. Each chunk refunds its payments and advances cursor in
+ * one transaction, so a job interrupted at any point resumes after the last
+ * committed chunk without refunding anything twice.
+ */
+@Entity
+@Table(name = "refund_jobs", indexes = {
+    @Index(name = "idx_refund_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDING"; // PENDING, RUNNING, COMPLETED, FAILED
+
+    @Column(name = "selector_type", nullable = false, length = 20)
+    private String selectorType; // PAYMENT_IDS, ORDER_IDS, FILTER
+
+    // BulkRefundRequestDTO as JSON; id lists are stored sorted
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String selector;
+
+    @Column(length = 255)
+    private String reason;
+
+    // Last payment id (FILTER) or last listed id (PAYMENT_IDS, ORDER_IDS) of the last committed chunk
+    @Column(name = "cursor_id", nullable = false)
+    @Builder.Default
+    private Long cursorId = 0L;
+
+    @Builder.Default
+    private Long total = 0L;
+
+    @Builder.Default
+    private Long processed = 0L;
+
+    @Builder.Default
+    private Long refunded = 0L;
+
+    // Not SUCCESS any more (already refunded, failed) or not found
+    @Builder.Default
+    private Long skipped = 0L;
+
+    @Column(name = "refunded_amount", precision = 19, scale = 2)
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(length = 500)
+    private String error;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stored daily settlement totals. Generated once per day off-peak (or on
+ * request) and served from here, so reading a report never scans payments.
+ */
+@Entity
+@Table(name = "settlement_reports", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_settlement_reports_date", columnNames = "report_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementReport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_date", nullable = false)
+    private LocalDate reportDate;
+
+    // Successful PAYMENT transactions created that day
+    @Builder.Default
+    private Long settledCount = 0L;
+
+    @Builder.Default
+    private BigDecimal settledAmount = BigDecimal.ZERO;
+
+    // Successful REFUND transactions created that day
+    @Builder.Default
+    private Long refundCount = 0L;
+
+    @Builder.Default
+    private BigDecimal refundAmount = BigDecimal.ZERO;
+
+    @Builder.Default
+    private BigDecimal netAmount = BigDecimal.ZERO;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @JoinColumn(name = "report_id", nullable = false)
+    @OrderColumn(name = "line_no")
+    @Builder.Default
+    private List<SettlementReportLine> lines = new ArrayList<>();
+}
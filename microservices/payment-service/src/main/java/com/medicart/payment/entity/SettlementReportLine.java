@@ -0,0 +1,39 @@
+package com.medicart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+/**
+ * One group of a settlement report: payments by method and status, or
+ * successful refunds by the refunded payment's method.
+ */
+@Entity
+@Table(name = "settlement_report_lines")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementReportLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "line_type", nullable = false, length = 20)
+    private String lineType; // PAYMENT, REFUND
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "item_count", nullable = false)
+    private Long count;
+
+    @Column(name = "amount", nullable = false)
+    private BigDecimal amount;
+}
@@ -9,7 +9,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", uniqueConstraints = {
+    // Ledger writes are retried; a record is identified by its transaction_id
+    @UniqueConstraint(name = "uk_transactions_transaction_id", columnNames = "transaction_id")
+}, indexes = {
+    @Index(name = "idx_transactions_payment", columnList = "payment_id"),
+    @Index(name = "idx_transactions_type_created", columnList = "transaction_type, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,9 @@
+package com.medicart.payment.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a failed payment was committed with a next retry time.
+ */
+public record PaymentRetryScheduledEvent(Long paymentId, LocalDateTime retryAt) {
+}
@@ -0,0 +1,127 @@
+package com.medicart.payment.gateway;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED: outcomes of the last windowSize calls are kept in a ring; once at
+ * least minCalls are recorded and the failure share reaches failureRateThreshold
+ * the breaker opens. OPEN: every call is refused for openMs. HALF_OPEN: up to
+ * halfOpenCalls trial calls are let through; all succeeding closes the breaker,
+ * any failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openMs;
+    private final int halfOpenCalls;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failed;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, long openMs, int halfOpenCalls) {
+        this.window = new boolean[windowSize];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMs = openMs;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Whether a call may go ahead. A permitted call must end with onSuccess,
+     * onFailure or release.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                reset();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minCalls && (double) failed / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Give back a permit whose call never reached the provider.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return recorded == 0 ? 0.0 : (double) failed / recorded;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failed = 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.medicart.payment.gateway;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment provider adapter. Implementations talk to one provider (or simulate
+ * one); resilience concerns live in ResilientPaymentGateway.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Charge the amount. Returns the provider's decision; throws
+     * PaymentGatewayException when the provider could not be reached or
+     * did not answer in time.
+     */
+    ChargeResult charge(ChargeRequest request);
+
+    record ChargeRequest(Long paymentId, Long orderId, BigDecimal amount, String paymentMethod, String reference) {
+    }
+
+    record ChargeResult(boolean approved, String providerReference, String declineReason) {
+
+        public static ChargeResult approved(String providerReference) {
+            return new ChargeResult(true, providerReference, null);
+        }
+
+        public static ChargeResult declined(String reason) {
+            return new ChargeResult(false, null, reason);
+        }
+    }
+}
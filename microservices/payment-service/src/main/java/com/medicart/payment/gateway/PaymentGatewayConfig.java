@@ -0,0 +1,44 @@
+package com.medicart.payment.gateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class PaymentGatewayConfig {
+
+    @Bean
+    public SimulatedPaymentGateway simulatedPaymentGateway(
+            @Value("${payment.gateway.simulator.latency-mode:fixed}") String latencyMode,
+            @Value("${payment.gateway.simulator.fixed-ms:100}") long fixedMs,
+            @Value("${payment.gateway.simulator.median-ms:80}") double medianMs,
+            @Value("${payment.gateway.simulator.sigma:0.5}") double sigma,
+            @Value("${payment.gateway.simulator.spike-probability:0.01}") double spikeProbability,
+            @Value("${payment.gateway.simulator.spike-ms:3000}") long spikeMs,
+            @Value("${payment.gateway.simulator.failure-rate:0.0}") double failureRate,
+            @Value("${payment.gateway.simulator.decline-rate:0.0}") double declineRate) {
+        return new SimulatedPaymentGateway(
+                SimulatedPaymentGateway.LatencyMode.valueOf(latencyMode.trim().toUpperCase()),
+                fixedMs, medianMs, sigma, spikeProbability, spikeMs, failureRate, declineRate);
+    }
+
+    /**
+     * The gateway PaymentService uses: the provider adapter behind breaker, bulkhead and timeout.
+     */
+    @Bean
+    @Primary
+    public ResilientPaymentGateway paymentGateway(
+            SimulatedPaymentGateway provider,
+            @Value("${payment.gateway.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${payment.gateway.bulkhead.max-wait-ms:50}") long maxWaitMs,
+            @Value("${payment.gateway.timeout-ms:2000}") long timeoutMs,
+            @Value("${payment.gateway.circuit.window-size:50}") int windowSize,
+            @Value("${payment.gateway.circuit.min-calls:20}") int minCalls,
+            @Value("${payment.gateway.circuit.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${payment.gateway.circuit.open-ms:10000}") long openMs,
+            @Value("${payment.gateway.circuit.half-open-calls:3}") int halfOpenCalls) {
+        CircuitBreaker breaker = new CircuitBreaker(windowSize, minCalls, failureRateThreshold, openMs, halfOpenCalls);
+        return new ResilientPaymentGateway(provider, maxConcurrent, maxWaitMs, timeoutMs, breaker);
+    }
+}
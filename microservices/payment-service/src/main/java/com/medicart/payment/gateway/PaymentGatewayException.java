@@ -0,0 +1,24 @@
+package com.medicart.payment.gateway;
+
+/**
+ * The provider did not give a decision: unreachable, provider error, timeout,
+ * bulkhead full or circuit open. retryable tells whether trying again later
+ * can succeed without any change to the request.
+ */
+public class PaymentGatewayException extends RuntimeException {
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,174 @@
+package com.medicart.payment.gateway;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wraps the provider adapter with, in call order:
+ * 1. circuit breaker: after too many failures in the recent window, calls are
+ *    refused for openMs, then a few trial calls decide whether to close again
+ * 2. bulkhead: at most maxConcurrent calls in flight; callers wait at most
+ *    maxWaitMs for a slot and are refused after that. A slot is freed when
+ *    the provider call actually returns, not when its caller gives up, so
+ *    abandoned calls still count against the limit
+ * 3. timeout: the provider call runs on its own (virtual) thread and is
+ *    abandoned (and interrupted) after timeoutMs
+ * Declines are normal answers and count as successes for the breaker.
+ * Counters are exposed through metrics().
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+    private static final Logger log = LoggerFactory.getLogger(ResilientPaymentGateway.class);
+
+    private final PaymentGateway provider;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final long timeoutMs;
+    private final CircuitBreaker breaker;
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong approved = new AtomicLong();
+    private final AtomicLong declined = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+
+    public ResilientPaymentGateway(PaymentGateway provider, int maxConcurrent, long maxWaitMs, long timeoutMs,
+                                   CircuitBreaker breaker) {
+        this.provider = provider;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxWaitMs = maxWaitMs;
+        this.timeoutMs = timeoutMs;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) {
+        calls.incrementAndGet();
+        if (!breaker.tryAcquire()) {
+            circuitRejections.incrementAndGet();
+            throw new PaymentGatewayException("Payment provider unavailable (circuit open)", true);
+        }
+
+        boolean permitted;
+        try {
+            permitted = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.release();
+            throw new PaymentGatewayException("Payment processing interrupted", true, e);
+        }
+        if (!permitted) {
+            bulkheadRejections.incrementAndGet();
+            // Local overload says nothing about the provider's health
+            breaker.release();
+            throw new PaymentGatewayException("Payment provider busy (bulkhead full)", true);
+        }
+
+        long start = System.nanoTime();
+        // Whoever claims it releases the permit: the provider call when it returns,
+        // or the caller when a cancelled call never started
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<ChargeResult> call;
+        try {
+            call = callExecutor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return provider.charge(request);
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            breaker.release();
+            throw new PaymentGatewayException("Payment provider call could not be started", true, e);
+        }
+
+        try {
+            ChargeResult result = call(call, claimed);
+            recordLatency(start);
+            breaker.onSuccess();
+            (result.approved() ? approved : declined).incrementAndGet();
+            return result;
+        } catch (PaymentGatewayException e) {
+            recordLatency(start);
+            breaker.onFailure();
+            failures.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private ChargeResult call(Future<ChargeResult> call, AtomicBoolean claimed) {
+        try {
+            return call.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(call, claimed);
+            timeouts.incrementAndGet();
+            log.warn("⚠️  Payment provider timed out after {} ms", timeoutMs);
+            throw new PaymentGatewayException("Payment provider timed out after " + timeoutMs + " ms", true, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            throw new PaymentGatewayException("Payment provider error: " + e.getCause().getMessage(), true, e.getCause());
+        } catch (InterruptedException e) {
+            abandon(call, claimed);
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Payment processing interrupted", true, e);
+        }
+    }
+
+    // Interrupts the provider call; its permit stays taken until the call really returns
+    private void abandon(Future<ChargeResult> call, AtomicBoolean claimed) {
+        call.cancel(true);
+        if (claimed.compareAndSet(false, true)) {
+            // Cancelled before it started: it will never run, so free its slot here
+            bulkhead.release();
+        }
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        totalLatencyMs.addAndGet(elapsedMs);
+        maxLatencyMs.accumulateAndGet(elapsedMs, Math::max);
+    }
+
+    public Map<String, Object> metrics() {
+        long completed = approved.get() + declined.get() + failures.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("calls", calls.get());
+        metrics.put("approved", approved.get());
+        metrics.put("declined", declined.get());
+        metrics.put("failures", failures.get());
+        metrics.put("timeouts", timeouts.get());
+        metrics.put("bulkheadRejections", bulkheadRejections.get());
+        metrics.put("circuitRejections", circuitRejections.get());
+        metrics.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        metrics.put("maxConcurrent", maxConcurrent);
+        metrics.put("avgLatencyMs", completed == 0 ? 0 : totalLatencyMs.get() / completed);
+        metrics.put("maxLatencyMs", maxLatencyMs.get());
+        metrics.put("circuitState", breaker.state().name());
+        metrics.put("recentFailureRate", breaker.failureRate());
+        return metrics;
+    }
+}
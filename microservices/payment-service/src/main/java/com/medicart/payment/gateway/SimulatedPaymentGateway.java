@@ -0,0 +1,72 @@
+package com.medicart.payment.gateway;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a payment provider, for development and load tests.
+ *
+ * Latency per call is drawn from the configured distribution:
+ * - fixed: always fixedMs
+ * - lognormal: median medianMs, spread sigma (long right tail like real providers)
+ * - spike: lognormal, plus spikeMs extra with probability spikeProbability
+ * A call fails with probability failureRate (provider error) and is declined
+ * with probability declineRate.
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    public enum LatencyMode { FIXED, LOGNORMAL, SPIKE }
+
+    private final LatencyMode mode;
+    private final long fixedMs;
+    private final double medianMs;
+    private final double sigma;
+    private final double spikeProbability;
+    private final long spikeMs;
+    private final double failureRate;
+    private final double declineRate;
+
+    public SimulatedPaymentGateway(LatencyMode mode, long fixedMs, double medianMs, double sigma,
+                                   double spikeProbability, long spikeMs,
+                                   double failureRate, double declineRate) {
+        this.mode = mode;
+        this.fixedMs = fixedMs;
+        this.medianMs = medianMs;
+        this.sigma = sigma;
+        this.spikeProbability = spikeProbability;
+        this.spikeMs = spikeMs;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(nextLatencyMs(random));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Payment processing interrupted", true, e);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Simulated provider error", true);
+        }
+        if (random.nextDouble() < declineRate) {
+            return ChargeResult.declined("Simulated decline");
+        }
+        return ChargeResult.approved("SIM-" + UUID.randomUUID());
+    }
+
+    long nextLatencyMs(ThreadLocalRandom random) {
+        return switch (mode) {
+            case FIXED -> fixedMs;
+            case LOGNORMAL -> lognormal(random);
+            case SPIKE -> lognormal(random) + (random.nextDouble() < spikeProbability ? spikeMs : 0);
+        };
+    }
+
+    private long lognormal(ThreadLocalRandom random) {
+        // exp(ln(median) + sigma * N(0,1)) has the requested median
+        return Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.PaymentClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PaymentClaimRepository extends JpaRepository<PaymentClaim, Long> {
+
+    Optional<PaymentClaim> findByOrderId(Long orderId);
+
+    /**
+     * Starts a new attempt on an existing claim. Only succeeds if nobody else
+     * took the claim over since it was read (same attempt number).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentClaim c SET c.status = 'IN_PROGRESS', c.attempt = c.attempt + 1, " +
+           "c.idempotencyKey = :key, c.fingerprint = :fingerprint, c.paymentId = NULL, c.claimedAt = :now " +
+           "WHERE c.id = :id AND c.attempt = :attempt")
+    int takeOver(@Param("id") Long id, @Param("attempt") Integer attempt, @Param("key") String key,
+                 @Param("fingerprint") String fingerprint, @Param("now") LocalDateTime now);
+
+    /**
+     * paymentId is null when the attempt ended without a payment row (it then
+     * counts as retryable).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentClaim c SET c.status = 'COMPLETED', c.paymentId = :paymentId " +
+           "WHERE c.id = :id AND c.attempt = :attempt")
+    int complete(@Param("id") Long id, @Param("attempt") Integer attempt, @Param("paymentId") Long paymentId);
+}
@@ -0,0 +1,53 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.PaymentOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEvent, Long> {
+
+    /**
+     * Due events for the dispatcher to claim: PENDING rows whose retry time has
+     * come, and IN_FLIGHT rows whose lease (next_attempt_at) ran out because
+     * their dispatcher died. Lock timeout -2 is SKIP LOCKED in Hibernate, so
+     * several instances can claim without blocking each other or taking the
+     * same row twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM PaymentOutboxEvent e WHERE e.status IN ('PENDING', 'IN_FLIGHT') AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.id")
+    List<PaymentOutboxEvent> claimDue(@Param("now") LocalDateTime now, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PaymentOutboxEvent e WHERE e.id IN :ids")
+    List<PaymentOutboxEvent> lockByIds(@Param("ids") Collection<Long> ids);
+
+    boolean existsByPaymentIdAndEventTypeAndStatusIn(Long paymentId, String eventType, Collection<String> statuses);
+
+    // Dead-letter view, newest first
+    @Query("SELECT e FROM PaymentOutboxEvent e WHERE e.status = 'DEAD' ORDER BY e.id DESC")
+    List<PaymentOutboxEvent> findDead(Pageable page);
+
+    /**
+     * Puts DEAD events back in the queue with a fresh attempt budget.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentOutboxEvent e SET e.status = 'PENDING', e.attempts = 0, e.nextAttemptAt = :now " +
+           "WHERE e.id IN :ids AND e.status = 'DEAD'")
+    int requeueDead(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+}
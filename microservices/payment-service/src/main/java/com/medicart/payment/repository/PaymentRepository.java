@@ -1,8 +1,18 @@
 package com.medicart.payment.repository;
 
 import com.medicart.payment.entity.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +21,137 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
     List<Payment> findByUserId(Long userId);
     List<Payment> findByPaymentStatus(Payment.PaymentStatus status);
+
+    // Row lock for status changes that must see the latest status, e.g. a refund
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    interface HistoryRow {
+        Long getId();
+        Long getOrderId();
+        BigDecimal getAmount();
+        Payment.PaymentStatus getStatus();
+        String getPaymentMethod();
+        LocalDateTime getPaymentDate();
+        String getTransactionId();
+    }
+
+    // History pages: range scan on idx_payments_user_date_id, only the listed columns are read
+    @Query("SELECT p.id AS id, p.orderId AS orderId, p.amount AS amount, p.paymentStatus AS status, " +
+           "p.paymentMethod AS paymentMethod, p.paymentDate AS paymentDate, p.transactionId AS transactionId " +
+           "FROM Payment p WHERE p.userId = :userId ORDER BY p.paymentDate DESC, p.id DESC")
+    List<HistoryRow> findHistoryPage(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT p.id AS id, p.orderId AS orderId, p.amount AS amount, p.paymentStatus AS status, " +
+           "p.paymentMethod AS paymentMethod, p.paymentDate AS paymentDate, p.transactionId AS transactionId " +
+           "FROM Payment p WHERE p.userId = :userId " +
+           "AND (p.paymentDate < :paymentDate OR (p.paymentDate = :paymentDate AND p.id < :id)) " +
+           "ORDER BY p.paymentDate DESC, p.id DESC")
+    List<HistoryRow> findHistoryPageBefore(@Param("userId") Long userId,
+                                           @Param("paymentDate") LocalDateTime paymentDate,
+                                           @Param("id") Long id,
+                                           Pageable page);
+
+    interface ReconciliationRow {
+        Long getId();
+        Long getOrderId();
+        Long getUserId();
+        BigDecimal getAmount();
+        Payment.PaymentStatus getStatus();
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Reconciliation stream: settled payments in (order_id, id) order. Walks idx_payments_order_id_status
+    // in index order (no filesort, stops at the page size) and filters the status from the index
+    @Query("SELECT p.id AS id, p.orderId AS orderId, p.userId AS userId, p.amount AS amount, " +
+           "p.paymentStatus AS status, p.updatedAt AS updatedAt FROM Payment p " +
+           "WHERE p.paymentStatus IN :statuses " +
+           "AND (p.orderId > :afterOrderId OR (p.orderId = :afterOrderId AND p.id > :afterId)) " +
+           "ORDER BY p.orderId, p.id")
+    List<ReconciliationRow> findReconciliationChunk(@Param("statuses") Collection<Payment.PaymentStatus> statuses,
+                                                    @Param("afterOrderId") Long afterOrderId,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable page);
+
+    interface RefundTarget {
+        Long getId();
+        Long getOrderId();
+        BigDecimal getAmount();
+    }
+
+    // Bulk refund chunk: locks the listed payments that can still be refunded
+    @Query(value = "SELECT id AS id, order_id AS orderId, amount AS amount FROM payments " +
+                   "WHERE id IN (:ids) AND payment_status = 'SUCCESS' ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<RefundTarget> lockRefundableByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id AS id, order_id AS orderId, amount AS amount FROM payments " +
+                   "WHERE order_id IN (:orderIds) AND payment_status = 'SUCCESS' ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<RefundTarget> lockRefundableByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query(value = "SELECT id AS id, order_id AS orderId, amount AS amount FROM payments " +
+                   "WHERE id > :afterId AND payment_status = 'SUCCESS' " +
+                   "AND payment_date >= :paidFrom AND payment_date < :paidTo " +
+                   "AND (:paymentMethod IS NULL OR payment_method = :paymentMethod) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<RefundTarget> lockRefundableByFilter(@Param("afterId") Long afterId,
+                                              @Param("paidFrom") LocalDateTime paidFrom,
+                                              @Param("paidTo") LocalDateTime paidTo,
+                                              @Param("paymentMethod") String paymentMethod,
+                                              @Param("limit") int limit);
+
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.SUCCESS " +
+           "AND p.paymentDate >= :paidFrom AND p.paymentDate < :paidTo " +
+           "AND (:paymentMethod IS NULL OR p.paymentMethod = :paymentMethod)")
+    long countRefundableByFilter(@Param("paidFrom") LocalDateTime paidFrom,
+                                 @Param("paidTo") LocalDateTime paidTo,
+                                 @Param("paymentMethod") String paymentMethod);
+
+    // Set-based status change for already locked payments (bulk refund)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.REFUNDED, " +
+           "p.updatedAt = :now WHERE p.id IN :ids " +
+           "AND p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.SUCCESS")
+    int markRefunded(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Takes a due retry: only one caller (instance) gets 1 back.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.PROCESSING, " +
+           "p.nextRetryAt = NULL, p.retryCount = COALESCE(p.retryCount, 0) + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.FAILED " +
+           "AND p.nextRetryAt IS NOT NULL AND p.nextRetryAt <= :now")
+    int claimRetry(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Takes over a payment stuck in PROCESSING (its worker died between the claim
+     * and recording the outcome): only one caller (instance) gets 1 back.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Payment p SET p.updatedAt = :now WHERE p.id = :id " +
+           "AND p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.PROCESSING " +
+           "AND p.updatedAt < :staleBefore")
+    int claimStalled(@Param("id") Long id, @Param("now") LocalDateTime now,
+                     @Param("staleBefore") LocalDateTime staleBefore);
+
+    // PROCESSING payments untouched since staleBefore, keyset on id
+    @Query("SELECT p.id FROM Payment p " +
+           "WHERE p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.PROCESSING " +
+           "AND p.updatedAt < :staleBefore AND p.id > :afterId ORDER BY p.id")
+    List<Long> findStalledProcessing(@Param("staleBefore") LocalDateTime staleBefore,
+                                     @Param("afterId") Long afterId, Pageable page);
+
+    interface RetryRef {
+        Long getId();
+        LocalDateTime getNextRetryAt();
+    }
+
+    // Startup reload of the retry queue, keyset on id
+    @Query("SELECT p.id AS id, p.nextRetryAt AS nextRetryAt FROM Payment p " +
+           "WHERE p.paymentStatus = com.medicart.payment.entity.Payment.PaymentStatus.FAILED " +
+           "AND p.nextRetryAt IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<RetryRef> findScheduledRetries(@Param("afterId") Long afterId, Pageable page);
 }
@@ -0,0 +1,16 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    @Query("SELECT d FROM ReconciliationDiscrepancy d WHERE d.runId = :runId AND d.id > :afterId ORDER BY d.id")
+    List<ReconciliationDiscrepancy> findPage(@Param("runId") Long runId, @Param("afterId") Long afterId, Pageable page);
+}
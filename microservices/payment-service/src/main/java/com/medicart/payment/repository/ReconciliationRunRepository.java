@@ -0,0 +1,13 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    // A RUNNING row older than the window belongs to an instance that died mid-run
+    boolean existsByStatusAndStartedAtAfter(String status, LocalDateTime startedAfter);
+}
@@ -0,0 +1,28 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.RefundJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    /**
+     * Takes ownership of a job: new, failed, or running without a heartbeat
+     * since staleBefore (its instance died). Returns 0 when someone else owns it.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefundJob j SET j.status = 'RUNNING', j.heartbeatAt = :now, j.error = NULL WHERE j.id = :id " +
+           "AND (j.status IN ('PENDING', 'FAILED') OR (j.status = 'RUNNING' AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Query("SELECT j.id FROM RefundJob j WHERE j.status IN ('PENDING', 'RUNNING') ORDER BY j.id")
+    List<Long> findUnfinishedIds();
+}
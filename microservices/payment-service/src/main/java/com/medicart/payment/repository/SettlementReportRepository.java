@@ -0,0 +1,12 @@
+package com.medicart.payment.repository;
+
+import com.medicart.payment.entity.SettlementReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface SettlementReportRepository extends JpaRepository<SettlementReport, Long> {
+    Optional<SettlementReport> findByReportDate(LocalDate reportDate);
+}
@@ -0,0 +1,47 @@
+package com.medicart.payment.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.medicart.payment.entity.Transaction;
+
+/**
+ * Inserts transactions rows with one JDBC batch. Transaction ids are IDENTITY,
+ * which makes Hibernate insert row by row; with rewriteBatchedStatements on
+ * the MySQL URL this becomes a single multi-row INSERT per batch.
+ * Idempotent on transaction_id (unique key): inserting a record that is
+ * already there leaves the ledger unchanged.
+ * Joins the caller's transaction when there is one.
+ */
+@Repository
+public class TransactionBatchInserter {
+    private static final String INSERT_SQL = "INSERT INTO transactions "
+            + "(payment_id, transaction_type, amount, description, transaction_id, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            // A retried record (same transaction_id) is a no-op, not a second ledger row
+            + "ON DUPLICATE KEY UPDATE id = id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setLong(1, transaction.getPaymentId());
+            ps.setString(2, transaction.getTransactionType().name());
+            ps.setBigDecimal(3, transaction.getAmount());
+            ps.setString(4, transaction.getDescription());
+            ps.setString(5, transaction.getTransactionId());
+            ps.setString(6, transaction.getStatus().name());
+            ps.setTimestamp(7, transaction.getCreatedAt() != null ? Timestamp.valueOf(transaction.getCreatedAt()) : now);
+        });
+    }
+}
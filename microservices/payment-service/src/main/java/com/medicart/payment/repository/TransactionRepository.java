@@ -2,11 +2,33 @@ package com.medicart.payment.repository;
 
 import com.medicart.payment.entity.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findByPaymentId(Long paymentId);
     List<Transaction> findByTransactionId(String transactionId);
+
+    interface LedgerSummaryRow {
+        Transaction.TransactionType getTransactionType();
+        String getPaymentMethod();
+        Transaction.TransactionStatus getStatus();
+        Long getItemCount();
+        BigDecimal getTotalAmount();
+    }
+
+    // Settlement report: the day's ledger records by type, status and the payment's method.
+    // Ledger rows are immutable, so a payment refunded later still counts as settled on its own day
+    @Query("SELECT t.transactionType AS transactionType, p.paymentMethod AS paymentMethod, t.status AS status, " +
+           "COUNT(t) AS itemCount, COALESCE(SUM(t.amount), 0) AS totalAmount " +
+           "FROM Transaction t JOIN Payment p ON p.id = t.paymentId " +
+           "WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "GROUP BY t.transactionType, p.paymentMethod, t.status " +
+           "ORDER BY t.transactionType, p.paymentMethod, t.status")
+    List<LedgerSummaryRow> summarizeLedger(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,305 @@
+package com.medicart.payment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medicart.common.dto.BulkRefundRequestDTO;
+import com.medicart.payment.entity.RefundJob;
+import com.medicart.payment.entity.Transaction;
+import com.medicart.payment.repository.PaymentRepository;
+import com.medicart.payment.repository.RefundJobRepository;
+import com.medicart.payment.repository.TransactionBatchInserter;
+
+/**
+ * Bulk refunds (e.g. every payment for the orders of a recalled batch).
+ *
+ * A job walks its selection in chunks. Per chunk, in one transaction: lock the
+ * payments that are still SUCCESS, insert their REFUND transactions with one
+ * JDBC batch, flip them to REFUNDED with one UPDATE, and advance the job's
+ * cursor and counters. A crash loses at most the open chunk, which rolls back;
+ * the job is picked up again at startup (or via resume) after the last cursor.
+ */
+@Service
+public class BulkRefundService {
+    private static final Logger log = LoggerFactory.getLogger(BulkRefundService.class);
+
+    // Leaves room for the "Bulk refund job <id>: " prefix in transactions.description (255)
+    static final int MAX_REASON_LENGTH = 200;
+
+    public static final String PAYMENT_IDS = "PAYMENT_IDS";
+    public static final String ORDER_IDS = "ORDER_IDS";
+    public static final String FILTER = "FILTER";
+
+    @Autowired
+    private RefundJobRepository refundJobRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private TransactionBatchInserter transactionBatchInserter;
+
+    @Autowired
+    private PaymentSingleFlight paymentSingleFlight;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("refundJobExecutor")
+    private Executor refundJobExecutor;
+
+    @Value("${payment.refund.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${payment.refund.max-ids:100000}")
+    private int maxIds;
+
+    @Value("${payment.refund.stale-job-seconds:300}")
+    private long staleJobSeconds;
+
+    /**
+     * Record a job for the selection and start it in the background.
+     */
+    public RefundJob submit(BulkRefundRequestDTO request) {
+        BulkRefundRequestDTO selector = normalize(request);
+        String type = selector.getPaymentIds() != null ? PAYMENT_IDS
+                : selector.getOrderIds() != null ? ORDER_IDS : FILTER;
+        long total = switch (type) {
+            case PAYMENT_IDS -> selector.getPaymentIds().size();
+            case ORDER_IDS -> selector.getOrderIds().size();
+            default -> paymentRepository.countRefundableByFilter(selector.getPaidFrom(), selector.getPaidTo(),
+                    selector.getPaymentMethod());
+        };
+
+        RefundJob job = refundJobRepository.save(RefundJob.builder()
+                .selectorType(type)
+                .selector(writeSelector(selector))
+                .reason(selector.getReason())
+                .total(total)
+                .build());
+        log.info("💸 Bulk refund job {} created: {} {} candidates", job.getId(), total, type);
+        schedule(job.getId());
+        return job;
+    }
+
+    /**
+     * Continue a FAILED job (or one whose instance died) from its cursor.
+     */
+    public RefundJob resume(Long jobId) {
+        RefundJob job = getJob(jobId);
+        if ("COMPLETED".equals(job.getStatus())) {
+            throw new IllegalStateException("Refund job " + jobId + " is already completed");
+        }
+        schedule(jobId);
+        return job;
+    }
+
+    public RefundJob getJob(Long jobId) {
+        return refundJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Refund job not found"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (Long jobId : refundJobRepository.findUnfinishedIds()) {
+            log.info("🔁 Resuming bulk refund job {}", jobId);
+            schedule(jobId);
+        }
+    }
+
+    private void schedule(Long jobId) {
+        try {
+            refundJobExecutor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            // The job stays PENDING/FAILED and can be resumed later
+            throw new IllegalStateException("Too many refund jobs queued, try again later");
+        }
+    }
+
+    private void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (refundJobRepository.claim(jobId, now, now.minusSeconds(staleJobSeconds)) == 0) {
+            log.info("⏭️  Bulk refund job {} is finished or owned by another instance", jobId);
+            return;
+        }
+        RefundJob job = getJob(jobId);
+        try {
+            BulkRefundRequestDTO selector = readSelector(job.getSelector());
+            Chunk chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> refundChunk(job, selector));
+                // Replays on this instance must see the refund, not the cached SUCCESS
+                chunk.orderIds().forEach(paymentSingleFlight::forget);
+            } while (chunk.more());
+            job.setStatus("COMPLETED");
+            log.info("✅ Bulk refund job {} done: {} refunded ({}), {} skipped",
+                    jobId, job.getRefunded(), job.getRefundedAmount(), job.getSkipped());
+        } catch (Exception e) {
+            job.setStatus("FAILED");
+            job.setError(e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage());
+            log.error("❌ Bulk refund job {} failed after cursor {}: {}", jobId, job.getCursorId(), e.getMessage(), e);
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        refundJobRepository.save(job);
+    }
+
+    /**
+     * One chunk, inside the caller's transaction.
+     */
+    private Chunk refundChunk(RefundJob job, BulkRefundRequestDTO selector) {
+        List<PaymentRepository.RefundTarget> targets;
+        long examined;
+        long skipped;
+        Long nextCursor;
+        boolean more;
+
+        if (FILTER.equals(job.getSelectorType())) {
+            targets = paymentRepository.lockRefundableByFilter(job.getCursorId(), selector.getPaidFrom(),
+                    selector.getPaidTo(), selector.getPaymentMethod(), chunkSize);
+            examined = targets.size();
+            skipped = 0;
+            nextCursor = targets.isEmpty() ? job.getCursorId() : targets.get(targets.size() - 1).getId();
+            more = targets.size() == chunkSize;
+        } else {
+            List<Long> ids = PAYMENT_IDS.equals(job.getSelectorType()) ? selector.getPaymentIds() : selector.getOrderIds();
+            int from = firstAfter(ids, job.getCursorId());
+            List<Long> slice = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            if (slice.isEmpty()) {
+                return new Chunk(false, List.of());
+            }
+            targets = PAYMENT_IDS.equals(job.getSelectorType())
+                    ? paymentRepository.lockRefundableByIdIn(slice)
+                    : paymentRepository.lockRefundableByOrderIdIn(slice);
+            examined = slice.size();
+            long hit = PAYMENT_IDS.equals(job.getSelectorType()) ? targets.size()
+                    : targets.stream().map(PaymentRepository.RefundTarget::getOrderId).distinct().count();
+            skipped = examined - hit;
+            nextCursor = slice.get(slice.size() - 1);
+            more = from + slice.size() < ids.size();
+        }
+
+        List<Long> orderIds = new ArrayList<>(targets.size());
+        BigDecimal amount = BigDecimal.ZERO;
+        if (!targets.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            String description = "Bulk refund job " + job.getId()
+                    + (job.getReason() != null ? ": " + job.getReason() : "");
+            List<Transaction> refunds = new ArrayList<>(targets.size());
+            List<Long> paymentIds = new ArrayList<>(targets.size());
+            for (PaymentRepository.RefundTarget target : targets) {
+                refunds.add(Transaction.builder()
+                        .paymentId(target.getId())
+                        .transactionType(Transaction.TransactionType.REFUND)
+                        .amount(target.getAmount())
+                        .transactionId(UUID.randomUUID().toString())
+                        .status(Transaction.TransactionStatus.SUCCESS)
+                        .description(description)
+                        .createdAt(now)
+                        .build());
+                paymentIds.add(target.getId());
+                orderIds.add(target.getOrderId());
+                amount = amount.add(target.getAmount());
+            }
+            transactionBatchInserter.insertAll(refunds);
+            paymentRepository.markRefunded(paymentIds, now);
+        }
+
+        job.setProcessed(job.getProcessed() + examined);
+        job.setRefunded(job.getRefunded() + targets.size());
+        job.setSkipped(job.getSkipped() + skipped);
+        job.setRefundedAmount(job.getRefundedAmount().add(amount));
+        job.setCursorId(nextCursor);
+        job.setHeartbeatAt(LocalDateTime.now());
+        refundJobRepository.save(job);
+        return new Chunk(more, orderIds);
+    }
+
+    private BulkRefundRequestDTO normalize(BulkRefundRequestDTO request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Refund selection is required");
+        }
+        boolean byPayments = request.getPaymentIds() != null && !request.getPaymentIds().isEmpty();
+        boolean byOrders = request.getOrderIds() != null && !request.getOrderIds().isEmpty();
+        boolean byFilter = request.getPaidFrom() != null || request.getPaidTo() != null;
+        if ((byPayments ? 1 : 0) + (byOrders ? 1 : 0) + (byFilter ? 1 : 0) != 1) {
+            throw new IllegalArgumentException("Give exactly one of paymentIds, orderIds or paidFrom/paidTo");
+        }
+        if (byFilter && (request.getPaidFrom() == null || request.getPaidTo() == null
+                || !request.getPaidFrom().isBefore(request.getPaidTo()))) {
+            throw new IllegalArgumentException("paidFrom and paidTo are both required and paidFrom must be before paidTo");
+        }
+        if (request.getReason() != null && request.getReason().length() > MAX_REASON_LENGTH) {
+            throw new IllegalArgumentException("reason must be at most " + MAX_REASON_LENGTH + " characters");
+        }
+        return BulkRefundRequestDTO.builder()
+                .paymentIds(byPayments ? sortedIds(request.getPaymentIds()) : null)
+                .orderIds(byOrders ? sortedIds(request.getOrderIds()) : null)
+                .paidFrom(byFilter ? request.getPaidFrom() : null)
+                .paidTo(byFilter ? request.getPaidTo() : null)
+                .paymentMethod(byFilter ? request.getPaymentMethod() : null)
+                .reason(request.getReason())
+                .build();
+    }
+
+    // Sorted and distinct, so the job can keep its place with a single id
+    private List<Long> sortedIds(List<Long> ids) {
+        TreeSet<Long> sorted = new TreeSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                sorted.add(id);
+            }
+        }
+        if (sorted.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids per refund job");
+        }
+        return new ArrayList<>(sorted);
+    }
+
+    private static int firstAfter(List<Long> sortedIds, Long cursor) {
+        int index = Collections.binarySearch(sortedIds, cursor);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private String writeSelector(BulkRefundRequestDTO selector) {
+        try {
+            return objectMapper.writeValueAsString(selector);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize refund selection", e);
+        }
+    }
+
+    private BulkRefundRequestDTO readSelector(String json) {
+        try {
+            return objectMapper.readValue(json, BulkRefundRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt refund job selection", e);
+        }
+    }
+
+    private record Chunk(boolean more, List<Long> orderIds) {
+    }
+}
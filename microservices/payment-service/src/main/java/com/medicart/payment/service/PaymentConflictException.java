@@ -0,0 +1,19 @@
+package com.medicart.payment.service;
+
+/**
+ * The payment request cannot run now: another attempt for the same order is
+ * in progress (409) or the Idempotency-Key was reused for a different
+ * request (422).
+ */
+public class PaymentConflictException extends RuntimeException {
+    private final int status;
+
+    public PaymentConflictException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
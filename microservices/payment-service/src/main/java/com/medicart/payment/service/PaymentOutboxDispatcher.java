@@ -0,0 +1,147 @@
+package com.medicart.payment.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.medicart.payment.client.CartOrdersClient;
+import com.medicart.payment.entity.PaymentOutboxEvent;
+import com.medicart.payment.repository.PaymentOutboxRepository;
+
+/**
+ * Drains the payment outbox in batches. FINALIZE_ORDER is idempotent on the
+ * cart-orders side (a CONFIRMED order is left alone), which also removes the
+ * ordered medicines from the cart. Failed events are retried with exponential
+ * backoff and parked as DEAD after the last attempt (see GET
+ * /api/payment/outbox/dead).
+ *
+ * No transaction is open while cart-orders is called: due rows are claimed as
+ * IN_FLIGHT with a lease in one short transaction, delivered, and their
+ * outcomes recorded in another. A row whose dispatcher dies is claimed again
+ * once its lease runs out.
+ */
+@Component
+public class PaymentOutboxDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(PaymentOutboxDispatcher.class);
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private CartOrdersClient cartOrdersClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${payment.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${payment.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${payment.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    // Must outlast delivering a whole batch (calls x Feign timeouts)
+    @Value("${payment.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Scheduled(fixedDelayString = "${payment.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // Whole seconds, so the lease compares equal after the round trip through the column
+        LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000L).truncatedTo(ChronoUnit.SECONDS);
+        List<PaymentOutboxEvent> events = transactionTemplate.execute(status -> claim(now, leaseUntil));
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // Event id -> failure; events without an entry were delivered
+        Map<Long, Exception> failures = new HashMap<>();
+        for (PaymentOutboxEvent event : events) {
+            try {
+                switch (event.getEventType()) {
+                    case PaymentOutboxService.FINALIZE_ORDER ->
+                            cartOrdersClient.finalizePayment(event.getOrderId(), event.getUserId());
+                    default -> throw new IllegalStateException("Unknown outbox event type " + event.getEventType());
+                }
+            } catch (Exception e) {
+                failures.put(event.getId(), e);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> record(events, leaseUntil, failures));
+    }
+
+    private List<PaymentOutboxEvent> claim(LocalDateTime now, LocalDateTime leaseUntil) {
+        List<PaymentOutboxEvent> events = paymentOutboxRepository.claimDue(now, PageRequest.of(0, batchSize));
+        for (PaymentOutboxEvent event : events) {
+            if ("IN_FLIGHT".equals(event.getStatus())) {
+                log.warn("⚠️  Payment outbox event {} lease expired, delivering again", event.getId());
+            }
+            event.setStatus("IN_FLIGHT");
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(leaseUntil);
+        }
+        return events;
+    }
+
+    private void record(List<PaymentOutboxEvent> delivered, LocalDateTime leaseUntil, Map<Long, Exception> failures) {
+        List<Long> ids = delivered.stream().map(PaymentOutboxEvent::getId).toList();
+        for (PaymentOutboxEvent event : paymentOutboxRepository.lockByIds(ids)) {
+            if (!"IN_FLIGHT".equals(event.getStatus()) || !leaseUntil.equals(event.getNextAttemptAt())) {
+                // Our lease ran out and another dispatcher owns the row now
+                continue;
+            }
+            Exception failure = failures.get(event.getId());
+            if (failure == null) {
+                markSent(event);
+            } else {
+                scheduleRetry(event, failure);
+            }
+        }
+    }
+
+    private void markSent(PaymentOutboxEvent event) {
+        event.setStatus("SENT");
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+
+    private void scheduleRetry(PaymentOutboxEvent event, Exception e) {
+        int attempts = event.getAttempts();
+        event.setLastError(truncate(e.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus("DEAD");
+            log.error("❌ Payment outbox event {} ({} for order {}) is DEAD after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getOrderId(), attempts, e.getMessage());
+            return;
+        }
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        event.setStatus("PENDING");
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000L));
+        log.warn("⚠️  Payment outbox event {} failed (attempt {}), retrying in {} ms: {}",
+                event.getId(), attempts, delayMs, e.getMessage());
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,51 @@
+package com.medicart.payment.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.medicart.payment.entity.Payment;
+import com.medicart.payment.entity.PaymentOutboxEvent;
+import com.medicart.payment.repository.PaymentOutboxRepository;
+
+/**
+ * Writes outbox events. Must run inside the caller's transaction so the
+ * follow-ups commit (or roll back) together with the payment outcome.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class PaymentOutboxService {
+    public static final String FINALIZE_ORDER = "FINALIZE_ORDER";
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    /**
+     * Queue the order confirmation (status, stock and cart clean-up) for a successful payment.
+     */
+    public void enqueueFollowUps(Payment payment) {
+        paymentOutboxRepository.save(event(FINALIZE_ORDER, payment));
+    }
+
+    /**
+     * Queue only the order confirmation, e.g. as a reconciliation repair.
+     */
+    public void enqueueFinalize(Long paymentId, Long orderId, Long userId) {
+        paymentOutboxRepository.save(PaymentOutboxEvent.builder()
+                .eventType(FINALIZE_ORDER)
+                .paymentId(paymentId)
+                .orderId(orderId)
+                .userId(userId)
+                .build());
+    }
+
+    private PaymentOutboxEvent event(String type, Payment payment) {
+        return PaymentOutboxEvent.builder()
+                .eventType(type)
+                .paymentId(payment.getId())
+                .orderId(payment.getOrderId())
+                .userId(payment.getUserId())
+                .build();
+    }
+}
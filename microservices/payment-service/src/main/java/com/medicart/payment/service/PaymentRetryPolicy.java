@@ -0,0 +1,46 @@
+package com.medicart.payment.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.medicart.payment.gateway.PaymentGatewayException;
+
+/**
+ * When a failed payment is retried automatically: only failures the gateway
+ * marks as retryable (timeouts, provider errors, open circuit, full bulkhead),
+ * at most maxAttempts times, with exponential backoff and "equal jitter"
+ * (half the delay fixed, half random) so retries of one outage spread out.
+ */
+@Component
+public class PaymentRetryPolicy {
+
+    @Value("${payment.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${payment.retry.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${payment.retry.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    /**
+     * Next retry time, or null when the payment should stay FAILED.
+     */
+    public LocalDateTime nextRetryAt(Exception failure, Integer retriesSoFar) {
+        int retries = retriesSoFar == null ? 0 : retriesSoFar;
+        if (!enabled || retries >= maxAttempts
+                || !(failure instanceof PaymentGatewayException gatewayException) || !gatewayException.isRetryable()) {
+            return null;
+        }
+        long delayMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(retries, 20));
+        long half = delayMs / 2;
+        long jittered = half + ThreadLocalRandom.current().nextLong(half + 1);
+        return LocalDateTime.now().plusNanos(jittered * 1_000_000L);
+    }
+}
@@ -0,0 +1,241 @@
+package com.medicart.payment.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.medicart.payment.entity.Payment;
+import com.medicart.payment.event.PaymentRetryScheduledEvent;
+import com.medicart.payment.repository.PaymentRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Retries failed payments when their backoff expires (see PaymentRetryPolicy).
+ *
+ * Due times live in an in-memory DelayQueue, fed by PaymentService when a
+ * failure is scheduled for retry, so nothing polls the payments table per
+ * retry. The queue is rebuilt from payments.next_retry_at at startup, and a
+ * slow sweep picks up retries left behind by an instance that went away.
+ * Retries run on paymentRetryExecutor behind a semaphore, so an outage that
+ * failed many payments comes back as at most max-concurrent gateway calls.
+ * Every instance may hold the same payment; the conditional claim in
+ * PaymentService.retryPayment lets only one of them charge it.
+ *
+ * A second sweep re-drives payments stuck in PROCESSING for longer than the
+ * processing lease, which is what an async payment looks like when its
+ * instance dies before the worker ran or recorded the outcome.
+ */
+@Component
+public class PaymentRetryScheduler {
+    private static final Logger log = LoggerFactory.getLogger(PaymentRetryScheduler.class);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    @Qualifier("paymentRetryExecutor")
+    private Executor paymentRetryExecutor;
+
+    @Value("${payment.retry.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${payment.retry.reload-chunk-size:500}")
+    private int reloadChunkSize;
+
+    // Longer than any gateway call, so a live worker is never taken over
+    @Value("${payment.processing.lease-seconds:300}")
+    private long processingLeaseSeconds;
+
+    private final DelayQueue<RetryTask> queue = new DelayQueue<>();
+    // Latest task per payment; older queue entries for the same payment are skipped
+    private final Map<Long, RetryTask> scheduled = new ConcurrentHashMap<>();
+    private Semaphore permits;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @EventListener
+    public void onRetryScheduled(PaymentRetryScheduledEvent event) {
+        schedule(event.paymentId(), event.retryAt(), true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        permits = new Semaphore(maxConcurrent);
+        int loaded = reload();
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "payment-retry-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("🔁 Payment retry scheduler started with {} pending retries", loaded);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // Safety net for retries whose instance stopped before running them
+    @Scheduled(fixedDelayString = "${payment.retry.sweep-interval-ms:600000}",
+               initialDelayString = "${payment.retry.sweep-interval-ms:600000}")
+    public void sweep() {
+        if (running) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.processing.sweep-interval-ms:60000}",
+               initialDelayString = "${payment.processing.sweep-interval-ms:60000}")
+    public void recoverStalled() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(processingLeaseSeconds);
+        Long afterId = 0L;
+        try {
+            while (true) {
+                List<Long> ids = paymentRepository.findStalledProcessing(staleBefore, afterId,
+                        PageRequest.of(0, reloadChunkSize));
+                for (Long paymentId : ids) {
+                    runLimited(() -> recover(paymentId, staleBefore));
+                }
+                if (ids.size() < reloadChunkSize) {
+                    return;
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int reload() {
+        int count = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<PaymentRepository.RetryRef> chunk =
+                    paymentRepository.findScheduledRetries(afterId, PageRequest.of(0, reloadChunkSize));
+            for (PaymentRepository.RetryRef ref : chunk) {
+                if (schedule(ref.getId(), ref.getNextRetryAt(), false)) {
+                    count++;
+                }
+            }
+            if (chunk.size() < reloadChunkSize) {
+                return count;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    private boolean schedule(Long paymentId, LocalDateTime retryAt, boolean replace) {
+        long delayNanos = Math.max(0, Duration.between(LocalDateTime.now(), retryAt).toNanos());
+        RetryTask task = new RetryTask(paymentId, System.nanoTime() + delayNanos);
+        if (replace) {
+            scheduled.put(paymentId, task);
+        } else if (scheduled.putIfAbsent(paymentId, task) != null) {
+            return false;
+        }
+        queue.put(task);
+        return true;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                RetryTask task = queue.take();
+                if (!scheduled.remove(task.paymentId(), task)) {
+                    continue;
+                }
+                runLimited(() -> retry(task.paymentId()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("❌ Payment retry dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // Runs on paymentRetryExecutor; the permit, not the pool, caps it at max-concurrent
+    private void runLimited(Runnable work) throws InterruptedException {
+        permits.acquire();
+        try {
+            paymentRetryExecutor.execute(() -> {
+                try {
+                    work.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void recover(Long paymentId, LocalDateTime staleBefore) {
+        try {
+            Payment payment = paymentService.recoverStalledPayment(paymentId, staleBefore);
+            if (payment != null) {
+                log.warn("⚠️  Recovered payment {} stuck in PROCESSING for order {}: {}", paymentId,
+                        payment.getOrderId(), payment.getPaymentStatus());
+            }
+        } catch (PaymentConflictException e) {
+            log.info("⏭️  Recovery of payment {} skipped: {}", paymentId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("❌ Recovery of payment {} failed: {}", paymentId, e.getMessage(), e);
+        }
+    }
+
+    private void retry(Long paymentId) {
+        try {
+            Payment payment = paymentService.retryPayment(paymentId);
+            if (payment != null) {
+                log.info("🔁 Retried payment {} for order {}: {}", paymentId, payment.getOrderId(),
+                        payment.getPaymentStatus());
+            }
+        } catch (PaymentConflictException e) {
+            // A user resubmission or another instance is paying this order right now
+            log.info("⏭️  Retry of payment {} skipped: {}", paymentId, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("❌ Retry of payment {} failed: {}", paymentId, e.getMessage(), e);
+        }
+    }
+
+    private record RetryTask(Long paymentId, long dueNanos) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((RetryTask) other).dueNanos);
+        }
+    }
+}
@@ -5,14 +5,28 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.medicart.common.dto.CheckoutQuoteDTO;
+import com.medicart.common.dto.CursorPageDTO;
+import com.medicart.common.dto.PaymentDTO;
 import com.medicart.payment.client.CartOrdersClient;
 import com.medicart.payment.entity.Payment;
+import com.medicart.payment.entity.PaymentOutboxEvent;
 import com.medicart.payment.entity.Transaction;
+import com.medicart.payment.event.PaymentRetryScheduledEvent;
+import com.medicart.payment.gateway.PaymentGateway;
+import com.medicart.payment.repository.PaymentOutboxRepository;
 import com.medicart.payment.repository.PaymentRepository;
 import com.medicart.payment.repository.TransactionRepository;
 
@@ -28,25 +42,114 @@ public class PaymentService {
     @Autowired
     private CartOrdersClient cartOrdersClient;
 
-    @Transactional
-    public Payment processPayment(Long orderId, Long userId, BigDecimal amount, String paymentMethod) {
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private PaymentSingleFlight paymentSingleFlight;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private TransactionLedgerWriter ledgerWriter;
+
+    @Autowired
+    private PaymentRetryPolicy paymentRetryPolicy;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private Executor paymentExecutor;
+
+    /**
+     * Synchronous payment: the caller waits for the gateway and follow-ups.
+     * Each step runs in its own short transaction, so no DB connection is held
+     * while the gateway or cart-orders-service is being called.
+     * Concurrent duplicates for the order share one attempt (see PaymentSingleFlight).
+     */
+    public Payment processPayment(Long orderId, Long userId, BigDecimal amount, String paymentMethod,
+                                  String idempotencyKey) {
+        return paymentSingleFlight.execute(orderId, idempotencyKey,
+                PaymentSingleFlight.fingerprint(orderId, amount, paymentMethod),
+                () -> chargeNow(orderId, userId, amount, paymentMethod));
+    }
+
+    private Payment chargeNow(Long orderId, Long userId, BigDecimal amount, String paymentMethod) {
+        Payment payment;
+        try {
+            payment = startPayment(orderId, userId, amount, paymentMethod);
+        } catch (Exception e) {
+            return handlePaymentFailure(null, orderId, userId, amount, paymentMethod, e);
+        }
+        if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+            return payment;
+        }
+        return drivePayment(payment.getId());
+    }
+
+    /**
+     * Asynchronous payment: records a PROCESSING payment and hands the rest to
+     * the payment worker pool. Poll GET /api/payment/{id} for the outcome.
+     * Throws TaskRejectedException when the worker queue is full.
+     */
+    public Payment submitPayment(Long orderId, Long userId, BigDecimal amount, String paymentMethod,
+                                 String idempotencyKey) {
+        return paymentSingleFlight.execute(orderId, idempotencyKey,
+                PaymentSingleFlight.fingerprint(orderId, amount, paymentMethod),
+                () -> enqueue(orderId, userId, amount, paymentMethod));
+    }
+
+    private Payment enqueue(Long orderId, Long userId, BigDecimal amount, String paymentMethod) {
+        Payment payment = startPayment(orderId, userId, amount, paymentMethod);
+        if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+            return payment;
+        }
+        Long paymentId = payment.getId();
         try {
+            paymentExecutor.execute(() -> drivePayment(paymentId));
+        } catch (TaskRejectedException e) {
+            // Nothing was charged: leave the record retryable instead of stuck in PROCESSING
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.findById(paymentId)
+                    .ifPresent(p -> p.setPaymentStatus(Payment.PaymentStatus.PENDING)));
+            throw e;
+        }
+        return payment;
+    }
+
+    /**
+     * Step 1 (short transaction): create or reuse the payment row for the order
+     * and mark it PROCESSING. An already successful payment is returned as is.
+     */
+    private Payment startPayment(Long orderId, Long userId, BigDecimal amount, String paymentMethod) {
+        return transactionTemplate.execute(status -> {
             // Check if payment already exists for this order
             Optional<Payment> existingPayment = paymentRepository.findByOrderId(orderId);
-            
+
             Payment payment;
-            
+
             if (existingPayment.isPresent()) {
                 payment = existingPayment.get();
-                
+
                 // If payment already succeeded, return it
                 if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
                     return payment;
                 }
-                
+
                 // ✅ FIX: If payment exists but failed/pending, UPDATE it instead of creating new one
                 // This prevents duplicate key constraint violation
                 payment.setPaymentStatus(Payment.PaymentStatus.PROCESSING);
+                // A new submission replaces any pending automatic retry
+                payment.setRetryCount(0);
+                payment.setNextRetryAt(null);
                 payment.setPaymentMethod(paymentMethod);
                 payment.setAmount(amount);
                 payment.setTransactionId(UUID.randomUUID().toString());
@@ -64,74 +167,141 @@ public class PaymentService {
                         .build();
             }
 
-            payment = paymentRepository.save(payment);
+            return paymentRepository.save(payment);
+        });
+    }
 
-            // Simulate payment processing (in real scenario, call payment gateway)
-            simulatePaymentGateway(payment);
+    /**
+     * Steps 2-3 for a PROCESSING payment: gateway call (no transaction), then
+     * record the outcome, the outbox follow-ups and the ledger record in one
+     * short transaction through the group-commit writer.
+     */
+    private Payment drivePayment(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found"));
+        Long orderId = payment.getOrderId();
+        Long userId = payment.getUserId();
+        try {
+            PaymentGateway.ChargeResult result = paymentGateway.charge(new PaymentGateway.ChargeRequest(
+                    paymentId, orderId, payment.getAmount(), payment.getPaymentMethod(), payment.getTransactionId()));
+            if (!result.approved()) {
+                throw new RuntimeException("Payment declined: " + result.declineReason());
+            }
 
-            // Create transaction record
-            Transaction transaction = Transaction.builder()
-                    .paymentId(payment.getId())
+            // Status, outbox follow-ups and ledger record commit together, group-committed with concurrent payments
+            String ledgerId = UUID.randomUUID().toString();
+            payment = ledgerWriter.commit(() -> {
+                Payment current = paymentRepository.findById(paymentId)
+                        .orElseThrow(() -> new RuntimeException("Payment not found"));
+
+                // Update payment status
+                current.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
+                Payment saved = paymentRepository.save(current);
+
+                // Order finalization and cart clean-up are delivered by PaymentOutboxDispatcher
+                paymentOutboxService.enqueueFollowUps(saved);
+                return saved;
+            }, saved -> Transaction.builder()
+                    .paymentId(paymentId)
                     .transactionType(Transaction.TransactionType.PAYMENT)
-                    .amount(amount)
-                    .transactionId(UUID.randomUUID().toString())
+                    .amount(saved.getAmount())
+                    .transactionId(ledgerId)
                     .status(Transaction.TransactionStatus.SUCCESS)
                     .description("Payment processed for order " + orderId)
-                    .build();
-
-            transactionRepository.save(transaction);
+                    .build());
+        } catch (Exception e) {
+            return handlePaymentFailure(paymentId, orderId, userId, payment.getAmount(), payment.getPaymentMethod(), e);
+        }
 
-            // Update payment status
-            payment.setPaymentStatus(Payment.PaymentStatus.SUCCESS);
-            payment = paymentRepository.save(payment);
-
-            // ✅ Finalize payment: updates order status + reduces batch quantities
-            try {
-                cartOrdersClient.finalizePayment(orderId, userId);
-            } catch (Exception e) {
-                System.err.println("⚠️  Warning: Failed to finalize payment for order " + orderId + ": " + e.getMessage());
-            }
+        return payment;
+    }
 
-            // ✅ Clear cart after successful payment
-            try {
-                cartOrdersClient.clearCart(userId);
-            } catch (Exception e) {
-                // Log warning but don't fail payment if cart clearing fails
-                System.err.println("⚠️  Warning: Failed to clear cart for user " + userId + ": " + e.getMessage());
-            }
+    /**
+     * Automatic retry of a FAILED payment whose retry is due (PaymentRetryScheduler).
+     * Runs under the order's single flight, and the conditional claim makes sure
+     * only one instance charges. The payment keeps its transactionId, which is
+     * the gateway reference, so the provider sees the same charge again.
+     * Returns null when the payment is no longer waiting for a retry.
+     */
+    public Payment retryPayment(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        if (payment == null || payment.getPaymentStatus() != Payment.PaymentStatus.FAILED
+                || payment.getNextRetryAt() == null) {
+            return null;
+        }
+        return paymentSingleFlight.execute(payment.getOrderId(), null,
+                PaymentSingleFlight.fingerprint(payment.getOrderId(), payment.getAmount(), payment.getPaymentMethod()),
+                () -> paymentRepository.claimRetry(paymentId, LocalDateTime.now()) == 1
+                        ? drivePayment(paymentId)
+                        : paymentRepository.findById(paymentId).orElse(payment));
+    }
 
-            return payment;
-        } catch (Exception e) {
-            return handlePaymentFailure(orderId, userId, amount, paymentMethod, e);
+    /**
+     * Re-drives a payment left in PROCESSING by a worker that died, e.g. an
+     * async payment queued on an instance that was restarted (PaymentRetryScheduler).
+     * The gateway call repeats the payment's transactionId, so a charge that went
+     * through before the crash is answered as the same charge, not a second one.
+     * Returns null when the payment is no longer stuck.
+     */
+    public Payment recoverStalledPayment(Long paymentId, LocalDateTime staleBefore) {
+        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        if (payment == null || payment.getPaymentStatus() != Payment.PaymentStatus.PROCESSING) {
+            return null;
         }
+        return paymentSingleFlight.execute(payment.getOrderId(), null,
+                PaymentSingleFlight.fingerprint(payment.getOrderId(), payment.getAmount(), payment.getPaymentMethod()),
+                () -> paymentRepository.claimStalled(paymentId, LocalDateTime.now(), staleBefore) == 1
+                        ? drivePayment(paymentId)
+                        : paymentRepository.findById(paymentId).orElse(payment));
     }
 
-    @Transactional
-    public Payment refundPayment(Long paymentId) {
-        Optional<Payment> paymentOpt = paymentRepository.findById(paymentId);
-        if (paymentOpt.isEmpty()) {
-            throw new RuntimeException("Payment not found");
+    /**
+     * Resolves a checkout quote that has been turned into an order.
+     * The quote's locked total is the authoritative amount to charge.
+     */
+    public CheckoutQuoteDTO resolveQuote(String quoteId, Long userId) {
+        CheckoutQuoteDTO quote = cartOrdersClient.getQuote(quoteId, userId);
+        if (quote == null || quote.getOrderId() == null) {
+            throw new IllegalArgumentException("Quote " + quoteId + " has no placed order yet");
         }
+        return quote;
+    }
 
-        Payment payment = paymentOpt.get();
+    public Payment refundPayment(Long paymentId) {
+        // The status change and its refund transaction commit together
+        String ledgerId = UUID.randomUUID().toString();
+        RefundOutcome outcome = ledgerWriter.commit(() -> {
+            // Locked, so two concurrent refunds cannot both see SUCCESS
+            Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                    .orElseThrow(() -> new RuntimeException("Payment not found"));
+
+            if (payment.getPaymentStatus() == Payment.PaymentStatus.REFUNDED) {
+                return new RefundOutcome(payment, false);
+            }
+            if (payment.getPaymentStatus() != Payment.PaymentStatus.SUCCESS) {
+                throw new IllegalStateException("Only successful payments can be refunded, payment "
+                        + paymentId + " is " + payment.getPaymentStatus());
+            }
 
-        // Create refund transaction
-        Transaction transaction = Transaction.builder()
+            // Update payment status
+            payment.setPaymentStatus(Payment.PaymentStatus.REFUNDED);
+            payment.setUpdatedAt(LocalDateTime.now());
+            return new RefundOutcome(paymentRepository.save(payment), true);
+        }, result -> !result.refunded() ? null : Transaction.builder()
                 .paymentId(paymentId)
                 .transactionType(Transaction.TransactionType.REFUND)
-                .amount(payment.getAmount())
-                .transactionId(UUID.randomUUID().toString())
+                .amount(result.payment().getAmount())
+                .transactionId(ledgerId)
                 .status(Transaction.TransactionStatus.SUCCESS)
-                .description("Refund for payment " + payment.getId())
-                .build();
-
-        transactionRepository.save(transaction);
+                .description("Refund for payment " + paymentId)
+                .build());
+        paymentSingleFlight.forget(outcome.payment().getOrderId());
 
-        // Update payment status
-        payment.setPaymentStatus(Payment.PaymentStatus.REFUNDED);
-        payment.setUpdatedAt(LocalDateTime.now());
+        return outcome.payment();
+    }
 
-        return paymentRepository.save(payment);
+    // Refunding an already REFUNDED payment is a no-op that writes no ledger row
+    private record RefundOutcome(Payment payment, boolean refunded) {
     }
 
     public Payment getPaymentStatus(Long paymentId) {
@@ -144,50 +314,119 @@ public class PaymentService {
                 .orElse(null);
     }
 
-    public List<Payment> getUserPayments(Long userId) {
-        return paymentRepository.findByUserId(userId);
+    /**
+     * Get one page of the user's payments, newest first. Reads only the
+     * PaymentDTO columns, one index range scan per page.
+     */
+    public CursorPageDTO<PaymentDTO> getUserPayments(Long userId, String cursor, int limit) {
+        // Fetch one extra row to know whether another page exists
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<PaymentRepository.HistoryRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = paymentRepository.findHistoryPage(userId, page);
+        } else {
+            PaymentCursor after = PaymentCursor.decode(cursor);
+            rows = paymentRepository.findHistoryPageBefore(userId, after.paymentDate(), after.id(), page);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            PaymentRepository.HistoryRow last = rows.get(limit - 1);
+            nextCursor = new PaymentCursor(last.getPaymentDate(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<PaymentDTO>builder()
+                .items(rows.stream().map(this::toDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private PaymentDTO toDTO(PaymentRepository.HistoryRow row) {
+        return PaymentDTO.builder()
+                .id(row.getId())
+                .orderId(row.getOrderId())
+                .amount(row.getAmount() != null ? row.getAmount().doubleValue() : null)
+                .status(row.getStatus() != null ? row.getStatus().name() : null)
+                .paymentMethod(row.getPaymentMethod())
+                .paymentDate(row.getPaymentDate())
+                .transactionId(row.getTransactionId())
+                .build();
     }
 
     public List<Transaction> getPaymentTransactions(Long paymentId) {
         return transactionRepository.findByPaymentId(paymentId);
     }
 
-    private void simulatePaymentGateway(Payment payment) {
-        // In production, this would call actual payment gateway (Stripe, PayPal, etc.)
-        // For now, simulate a successful payment with some delay
-        try {
-            Thread.sleep(100); // Simulate processing time
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Payment processing interrupted");
+    public List<PaymentOutboxEvent> getDeadOutboxEvents(int limit) {
+        return paymentOutboxRepository.findDead(PageRequest.of(0, Math.max(1, Math.min(limit, 500))));
+    }
+
+    /**
+     * Re-queues dead outbox events; ids that are not DEAD are ignored.
+     */
+    public int retryOutboxEvents(List<Long> eventIds) {
+        if (eventIds == null || eventIds.isEmpty()) {
+            return 0;
         }
+        return paymentOutboxRepository.requeueDead(eventIds, LocalDateTime.now());
     }
 
-    private Payment handlePaymentFailure(Long orderId, Long userId, BigDecimal amount, 
-                                       String paymentMethod, Exception e) {
-        Payment payment = Payment.builder()
-                .orderId(orderId)
-                .userId(userId)
-                .amount(amount)
-                .paymentMethod(paymentMethod)
-                .paymentStatus(Payment.PaymentStatus.FAILED)
-                .transactionId(UUID.randomUUID().toString())
-                .build();
+    /**
+     * Marks the payment FAILED and appends a failed transaction to the ledger
+     * in one short transaction. The existing payment row for the order is
+     * updated; a new row is only created when the failure happened before any
+     * row existed.
+     */
+    private Payment handlePaymentFailure(Long paymentId, Long orderId, Long userId, BigDecimal amount,
+                                         String paymentMethod, Exception e) {
+        String ledgerId = UUID.randomUUID().toString();
+        Payment failed = ledgerWriter.commit(() -> {
+            Optional<Payment> existing = paymentId != null
+                    ? paymentRepository.findById(paymentId)
+                    : paymentRepository.findByOrderId(orderId);
 
-        payment = paymentRepository.save(payment);
+            Payment payment;
+            if (existing.isPresent()) {
+                payment = existing.get();
+                if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+                    // Never downgrade a completed payment
+                    return payment;
+                }
+                payment.setPaymentStatus(Payment.PaymentStatus.FAILED);
+                payment.setNextRetryAt(paymentRetryPolicy.nextRetryAt(e, payment.getRetryCount()));
+            } else {
+                payment = Payment.builder()
+                        .orderId(orderId)
+                        .userId(userId)
+                        .amount(amount)
+                        .paymentMethod(paymentMethod)
+                        .paymentStatus(Payment.PaymentStatus.FAILED)
+                        .transactionId(UUID.randomUUID().toString())
+                        .paymentDate(LocalDateTime.now())
+                        .build();
+            }
 
-        // Create failed transaction record
-        Transaction transaction = Transaction.builder()
+            return paymentRepository.save(payment);
+        }, payment -> payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS ? null : Transaction.builder()
                 .paymentId(payment.getId())
                 .transactionType(Transaction.TransactionType.PAYMENT)
                 .amount(amount)
-                .transactionId(UUID.randomUUID().toString())
+                .transactionId(ledgerId)
                 .status(Transaction.TransactionStatus.FAILED)
-                .description("Payment failed: " + e.getMessage())
-                .build();
+                .description(truncate("Payment failed: " + e.getMessage()))
+                .build());
+        if (failed.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+            return failed;
+        }
 
-        transactionRepository.save(transaction);
+        if (failed.getNextRetryAt() != null) {
+            eventPublisher.publishEvent(new PaymentRetryScheduledEvent(failed.getId(), failed.getNextRetryAt()));
+        }
+        return failed;
+    }
 
-        return payment;
+    private static String truncate(String description) {
+        return description.length() <= 255 ? description : description.substring(0, 255);
     }
 }
@@ -0,0 +1,284 @@
+package com.medicart.payment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.medicart.payment.entity.Payment;
+import com.medicart.payment.entity.PaymentClaim;
+import com.medicart.payment.repository.PaymentClaimRepository;
+import com.medicart.payment.repository.PaymentRepository;
+
+/**
+ * Runs at most one payment attempt per order at a time.
+ *
+ * On this instance a striped lock decides, per order, whether a request replays
+ * a recently finished result, joins the attempt already in flight (and waits on
+ * its future without touching the database), or leads a new attempt. Across
+ * instances the leader first claims the payment_claims row for the order
+ * (insert-first, then conditional takeover), so a second instance gets a 409
+ * instead of charging twice.
+ *
+ * Idempotency-Key is optional: a repeated key replays that attempt's payment,
+ * a key reused with a different amount or method gets a 422. Without a key,
+ * a SUCCESS payment is returned as is and a FAILED one may be retried.
+ *
+ * Not transactional on purpose: the claim, the payment and the completion each
+ * commit separately.
+ */
+@Service
+public class PaymentSingleFlight {
+    private static final Logger log = LoggerFactory.getLogger(PaymentSingleFlight.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Finished> finished;
+    private final int maxEntries;
+
+    @Autowired
+    private PaymentClaimRepository claimRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Value("${payment.single-flight.stale-claim-seconds:120}")
+    private long staleClaimSeconds;
+
+    @Value("${payment.single-flight.join-timeout-ms:30000}")
+    private long joinTimeoutMs;
+
+    @Value("${payment.single-flight.result-ttl-seconds:600}")
+    private long resultTtlSeconds;
+
+    public PaymentSingleFlight(@Value("${payment.single-flight.max-in-memory:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.finished = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Finished> eldest) {
+                return size() > PaymentSingleFlight.this.maxEntries;
+            }
+        };
+    }
+
+    public static String fingerprint(Long orderId, BigDecimal amount, String paymentMethod) {
+        return orderId + "|" + amount.stripTrailingZeros().toPlainString() + "|" + paymentMethod;
+    }
+
+    /**
+     * Run pay for the order unless an equivalent attempt is running or done;
+     * in that case its payment is returned instead.
+     */
+    public Payment execute(Long orderId, String key, String fingerprint, Supplier<Payment> pay) {
+        InFlight joined;
+        InFlight leader = null;
+        ReentrantLock lock = locks[Math.floorMod(Long.hashCode(orderId), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            Payment replay = finishedResult(orderId, key, fingerprint);
+            if (replay != null) {
+                return replay;
+            }
+            joined = inFlight.get(orderId);
+            if (joined == null) {
+                leader = new InFlight(key, fingerprint, new CompletableFuture<>());
+                inFlight.put(orderId, leader);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (joined != null) {
+            return join(orderId, joined, key, fingerprint);
+        }
+
+        try {
+            Payment payment = lead(orderId, key, fingerprint, pay);
+            leader.result().complete(payment);
+            return payment;
+        } catch (RuntimeException e) {
+            leader.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(orderId, leader);
+        }
+    }
+
+    private Payment join(Long orderId, InFlight running, String key, String fingerprint) {
+        if (!running.fingerprint().equals(fingerprint)) {
+            if (key != null && key.equals(running.key())) {
+                throw new PaymentConflictException("Idempotency-Key was already used for a different request", 422);
+            }
+            throw inProgress(orderId);
+        }
+        if (key != null && running.key() != null && !key.equals(running.key())) {
+            throw inProgress(orderId);
+        }
+
+        log.debug("🔁 Joining in-flight payment for order {}", orderId);
+        try {
+            return running.result().get(joinTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress(orderId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress(orderId);
+        }
+    }
+
+    private Payment lead(Long orderId, String key, String fingerprint, Supplier<Payment> pay) {
+        Claim claim = claim(orderId, key, fingerprint);
+        if (claim.replay() != null) {
+            remember(orderId, key, fingerprint, claim.replay());
+            return claim.replay();
+        }
+
+        Payment payment;
+        try {
+            payment = pay.get();
+        } catch (RuntimeException e) {
+            // No payment to replay: the next attempt may take the claim over
+            claimRepository.complete(claim.id(), claim.attempt(), null);
+            throw e;
+        }
+
+        claimRepository.complete(claim.id(), claim.attempt(), payment.getId());
+        remember(orderId, key, fingerprint, payment);
+        return payment;
+    }
+
+    /**
+     * Returns a claim owned by this attempt, or one carrying the payment to
+     * replay. Throws when another attempt holds the order.
+     */
+    private Claim claim(Long orderId, String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusSeconds(staleClaimSeconds);
+        Optional<PaymentClaim> existing = claimRepository.findByOrderId(orderId);
+        if (existing.isEmpty()) {
+            try {
+                PaymentClaim created = claimRepository.saveAndFlush(PaymentClaim.builder()
+                        .orderId(orderId)
+                        .idempotencyKey(key)
+                        .fingerprint(fingerprint)
+                        .claimedAt(now)
+                        .build());
+                return new Claim(created.getId(), created.getAttempt(), null);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted first
+                existing = claimRepository.findByOrderId(orderId);
+                if (existing.isEmpty()) {
+                    throw e;
+                }
+            }
+        }
+
+        PaymentClaim current = existing.get();
+        if ("IN_PROGRESS".equals(current.getStatus())) {
+            if (current.getClaimedAt().isAfter(staleBefore)) {
+                throw inProgress(orderId);
+            }
+            log.warn("⚠️  Taking over stale payment claim for order {}", orderId);
+        } else if (current.getPaymentId() != null) {
+            Payment payment = paymentRepository.findById(current.getPaymentId()).orElse(null);
+            if (payment != null) {
+                if (key != null && key.equals(current.getIdempotencyKey())) {
+                    if (!fingerprint.equals(current.getFingerprint())) {
+                        throw new PaymentConflictException("Idempotency-Key was already used for a different request", 422);
+                    }
+                    return new Claim(current.getId(), current.getAttempt(), payment);
+                }
+                if (payment.getPaymentStatus() == Payment.PaymentStatus.SUCCESS) {
+                    return new Claim(current.getId(), current.getAttempt(), payment);
+                }
+                // An async attempt is still being driven (unless its worker died long ago)
+                if (payment.getPaymentStatus() == Payment.PaymentStatus.PROCESSING
+                        && current.getClaimedAt().isAfter(staleBefore)) {
+                    throw inProgress(orderId);
+                }
+            }
+        }
+
+        if (claimRepository.takeOver(current.getId(), current.getAttempt(), key, fingerprint, now) == 0) {
+            throw inProgress(orderId);
+        }
+        return new Claim(current.getId(), current.getAttempt() + 1, null);
+    }
+
+    private synchronized Payment finishedResult(Long orderId, String key, String fingerprint) {
+        Finished entry = finished.get(orderId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() < System.currentTimeMillis()) {
+            finished.remove(orderId);
+            return null;
+        }
+        if (key != null && key.equals(entry.key())) {
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new PaymentConflictException("Idempotency-Key was already used for a different request", 422);
+            }
+            return entry.payment();
+        }
+        return entry.payment().getPaymentStatus() == Payment.PaymentStatus.SUCCESS ? entry.payment() : null;
+    }
+
+    /**
+     * Only final outcomes are kept; an async payment still PROCESSING must be
+     * read fresh.
+     */
+    private synchronized void remember(Long orderId, String key, String fingerprint, Payment payment) {
+        Payment.PaymentStatus status = payment.getPaymentStatus();
+        if (status != Payment.PaymentStatus.SUCCESS && status != Payment.PaymentStatus.FAILED) {
+            finished.remove(orderId);
+            return;
+        }
+        finished.put(orderId, new Finished(key, fingerprint, payment,
+                System.currentTimeMillis() + resultTtlSeconds * 1000L));
+    }
+
+    /**
+     * Drop the remembered outcome, e.g. after a refund changed the payment.
+     */
+    public synchronized void forget(Long orderId) {
+        finished.remove(orderId);
+    }
+
+    private PaymentConflictException inProgress(Long orderId) {
+        return new PaymentConflictException("Payment for order " + orderId + " is already in progress", 409);
+    }
+
+    private record InFlight(String key, String fingerprint, CompletableFuture<Payment> result) {
+    }
+
+    private record Finished(String key, String fingerprint, Payment payment, long expiresAt) {
+    }
+
+    private record Claim(Long id, Integer attempt, Payment replay) {
+    }
+}
@@ -0,0 +1,337 @@
+package com.medicart.payment.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.medicart.common.dto.OrderReconciliationDTO;
+import com.medicart.payment.client.CartOrdersClient;
+import com.medicart.payment.entity.Payment;
+import com.medicart.payment.entity.ReconciliationDiscrepancy;
+import com.medicart.payment.entity.ReconciliationRun;
+import com.medicart.payment.repository.PaymentOutboxRepository;
+import com.medicart.payment.repository.PaymentRepository;
+import com.medicart.payment.repository.ReconciliationDiscrepancyRepository;
+import com.medicart.payment.repository.ReconciliationRunRepository;
+
+/**
+ * Checks that every SUCCESS payment has a paid order with the same amount,
+ * and every paid order has a payment.
+ *
+ * Both sides are read as streams sorted by order id, one keyset chunk at a
+ * time (payments from this database, orders from cart-orders-service), and
+ * merge-joined. Memory holds one chunk per side plus the discrepancies not yet
+ * written, whatever the table sizes. Rows changed after the run's cutoff are
+ * skipped because they may still be settling (outbox in flight).
+ *
+ * With repair on, a SUCCESS payment whose order is still PENDING gets a
+ * FINALIZE_ORDER outbox event (idempotent on the cart-orders side).
+ */
+@Service
+public class ReconciliationService {
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    public static final String ORDER_MISSING = "ORDER_MISSING";
+    public static final String ORDER_NOT_CONFIRMED = "ORDER_NOT_CONFIRMED";
+    public static final String AMOUNT_MISMATCH = "AMOUNT_MISMATCH";
+    public static final String PAYMENT_MISSING = "PAYMENT_MISSING";
+
+    private static final Set<String> PAID_ORDER_STATUSES = Set.of("CONFIRMED", "SHIPPED", "DELIVERED");
+    private static final Set<Payment.PaymentStatus> SETTLED_PAYMENT_STATUSES =
+            EnumSet.of(Payment.PaymentStatus.SUCCESS, Payment.PaymentStatus.REFUNDED);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationDiscrepancyRepository discrepancyRepository;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private PaymentOutboxService paymentOutboxService;
+
+    @Autowired
+    private CartOrdersClient cartOrdersClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("reconciliationExecutor")
+    private Executor reconciliationExecutor;
+
+    @Value("${payment.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reconciliation.repair:false}")
+    private boolean scheduledRepair;
+
+    @Value("${payment.reconciliation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${payment.reconciliation.grace-minutes:15}")
+    private long graceMinutes;
+
+    @Value("${payment.reconciliation.max-run-hours:6}")
+    private long maxRunHours;
+
+    @Scheduled(cron = "${payment.reconciliation.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            start(scheduledRepair);
+        } catch (IllegalStateException e) {
+            log.info("⏭️  Skipping scheduled reconciliation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a new run and execute it in the background.
+     * Throws IllegalStateException when a run is already going.
+     */
+    public ReconciliationRun start(boolean repair) {
+        LocalDateTime now = LocalDateTime.now();
+        if (runRepository.existsByStatusAndStartedAtAfter("RUNNING", now.minusHours(maxRunHours))) {
+            throw new IllegalStateException("A reconciliation run is already in progress");
+        }
+        ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                .repair(repair)
+                .startedAt(now)
+                .cutoff(now.minusMinutes(graceMinutes))
+                .build());
+        try {
+            reconciliationExecutor.execute(() -> execute(run));
+        } catch (TaskRejectedException e) {
+            runRepository.delete(run);
+            throw new IllegalStateException("A reconciliation run is already in progress");
+        }
+        return run;
+    }
+
+    public ReconciliationRun getRun(Long runId) {
+        return runRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Reconciliation run not found"));
+    }
+
+    public List<ReconciliationDiscrepancy> getDiscrepancies(Long runId, Long afterId, int limit) {
+        return discrepancyRepository.findPage(runId, afterId == null ? 0L : afterId,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    private void execute(ReconciliationRun run) {
+        log.info("🔎 Reconciliation run {} started (repair={})", run.getId(), run.getRepair());
+        try {
+            merge(run);
+            run.setStatus("COMPLETED");
+            log.info("✅ Reconciliation run {} done: {} payments, {} orders, {} discrepancies, {} repairs",
+                    run.getId(), run.getPaymentsScanned(), run.getOrdersScanned(),
+                    run.getDiscrepancies(), run.getRepairsEnqueued());
+        } catch (Exception e) {
+            run.setStatus("FAILED");
+            run.setError(e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500) : e.getMessage());
+            log.error("❌ Reconciliation run {} failed after order {}: {}",
+                    run.getId(), run.getLastOrderId(), e.getMessage(), e);
+        }
+        run.setFinishedAt(LocalDateTime.now());
+        runRepository.save(run);
+    }
+
+    private void merge(ReconciliationRun run) {
+        Chunked<PaymentRepository.ReconciliationRow> payments = new Chunked<>(last -> paymentRepository
+                .findReconciliationChunk(SETTLED_PAYMENT_STATUSES,
+                        last == null ? 0L : last.getOrderId(),
+                        last == null ? 0L : last.getId(),
+                        PageRequest.of(0, chunkSize)), chunkSize);
+        Chunked<OrderReconciliationDTO> orders = new Chunked<>(last -> cartOrdersClient
+                .getReconciliationChunk(last == null ? 0L : last.getOrderId(), chunkSize), chunkSize);
+
+        List<ReconciliationDiscrepancy> pending = new ArrayList<>();
+        // The current order already had a payment (so it is not PAYMENT_MISSING)
+        boolean orderMatched = false;
+        long sinceFlush = 0;
+
+        while (true) {
+            PaymentRepository.ReconciliationRow payment = payments.peek();
+            OrderReconciliationDTO order = orders.peek();
+            if (payment == null && order == null) {
+                break;
+            }
+
+            if (order == null || (payment != null && payment.getOrderId() < order.getOrderId())) {
+                checkWithoutOrder(run, payment, pending);
+                payments.advance();
+                run.setPaymentsScanned(run.getPaymentsScanned() + 1);
+                run.setLastOrderId(payment.getOrderId());
+            } else if (payment == null || order.getOrderId() < payment.getOrderId()) {
+                if (!orderMatched) {
+                    checkWithoutPayment(run, order, pending);
+                }
+                orders.advance();
+                orderMatched = false;
+                run.setOrdersScanned(run.getOrdersScanned() + 1);
+                run.setLastOrderId(order.getOrderId());
+            } else {
+                // Same order: compare, keep the order for a possible second payment row
+                checkPair(run, payment, order, pending);
+                payments.advance();
+                orderMatched = true;
+                run.setPaymentsScanned(run.getPaymentsScanned() + 1);
+            }
+
+            if (++sinceFlush >= chunkSize) {
+                flush(run, pending);
+                sinceFlush = 0;
+            }
+        }
+        flush(run, pending);
+    }
+
+    private void checkWithoutOrder(ReconciliationRun run, PaymentRepository.ReconciliationRow payment,
+                                   List<ReconciliationDiscrepancy> pending) {
+        if (payment.getStatus() != Payment.PaymentStatus.SUCCESS || settling(run, payment.getUpdatedAt())) {
+            return;
+        }
+        pending.add(discrepancy(run, ORDER_MISSING, payment, null));
+    }
+
+    private void checkWithoutPayment(ReconciliationRun run, OrderReconciliationDTO order,
+                                     List<ReconciliationDiscrepancy> pending) {
+        if (!PAID_ORDER_STATUSES.contains(order.getStatus()) || settling(run, order.getUpdatedAt())) {
+            return;
+        }
+        pending.add(discrepancy(run, PAYMENT_MISSING, null, order));
+    }
+
+    private void checkPair(ReconciliationRun run, PaymentRepository.ReconciliationRow payment,
+                           OrderReconciliationDTO order, List<ReconciliationDiscrepancy> pending) {
+        if (payment.getStatus() != Payment.PaymentStatus.SUCCESS
+                || settling(run, payment.getUpdatedAt()) || settling(run, order.getUpdatedAt())) {
+            return;
+        }
+        if (!PAID_ORDER_STATUSES.contains(order.getStatus())) {
+            pending.add(discrepancy(run, ORDER_NOT_CONFIRMED, payment, order));
+        } else if (order.getTotalAmount() == null || money(BigDecimal.valueOf(order.getTotalAmount()))
+                .compareTo(money(payment.getAmount())) != 0) {
+            pending.add(discrepancy(run, AMOUNT_MISMATCH, payment, order));
+        }
+    }
+
+    private boolean settling(ReconciliationRun run, LocalDateTime updatedAt) {
+        return updatedAt != null && updatedAt.isAfter(run.getCutoff());
+    }
+
+    private ReconciliationDiscrepancy discrepancy(ReconciliationRun run, String type,
+                                                  PaymentRepository.ReconciliationRow payment,
+                                                  OrderReconciliationDTO order) {
+        return ReconciliationDiscrepancy.builder()
+                .runId(run.getId())
+                .type(type)
+                .orderId(payment != null ? payment.getOrderId() : order.getOrderId())
+                .paymentId(payment != null ? payment.getId() : null)
+                .paymentAmount(payment != null ? payment.getAmount() : null)
+                .orderAmount(order != null && order.getTotalAmount() != null
+                        ? money(BigDecimal.valueOf(order.getTotalAmount())) : null)
+                .orderStatus(order != null ? order.getStatus() : null)
+                .build();
+    }
+
+    /**
+     * Writes pending discrepancies, their repairs and the run's progress in one
+     * short transaction.
+     */
+    private void flush(ReconciliationRun run, List<ReconciliationDiscrepancy> pending) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (ReconciliationDiscrepancy discrepancy : pending) {
+                if (run.getRepair() && ORDER_NOT_CONFIRMED.equals(discrepancy.getType())
+                        && "PENDING".equals(discrepancy.getOrderStatus()) && repair(discrepancy)) {
+                    discrepancy.setRepairEnqueued(true);
+                    run.setRepairsEnqueued(run.getRepairsEnqueued() + 1);
+                }
+            }
+            discrepancyRepository.saveAll(pending);
+            run.setDiscrepancies(run.getDiscrepancies() + pending.size());
+            runRepository.save(run);
+        });
+        pending.clear();
+    }
+
+    private boolean repair(ReconciliationDiscrepancy discrepancy) {
+        // A FINALIZE_ORDER still waiting in (or being delivered from) the outbox will fix this on its own
+        if (paymentOutboxRepository.existsByPaymentIdAndEventTypeAndStatusIn(discrepancy.getPaymentId(),
+                PaymentOutboxService.FINALIZE_ORDER, List.of("PENDING", "IN_FLIGHT"))) {
+            return false;
+        }
+        Payment payment = paymentRepository.findById(discrepancy.getPaymentId()).orElse(null);
+        if (payment == null) {
+            return false;
+        }
+        paymentOutboxService.enqueueFinalize(payment.getId(), payment.getOrderId(), payment.getUserId());
+        return true;
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Sorted source read in keyset chunks: fetchAfter(lastRow) returns the next
+     * chunk (lastRow is null for the first one). Only one chunk is held.
+     */
+    private static final class Chunked<T> {
+        private final Function<T, List<T>> fetchAfter;
+        private final int chunkSize;
+        private List<T> chunk = List.of();
+        private int position;
+        private T last;
+        private boolean exhausted;
+
+        Chunked(Function<T, List<T>> fetchAfter, int chunkSize) {
+            this.fetchAfter = fetchAfter;
+            this.chunkSize = chunkSize;
+        }
+
+        T peek() {
+            if (position >= chunk.size()) {
+                if (exhausted) {
+                    return null;
+                }
+                chunk = fetchAfter.apply(last);
+                position = 0;
+                exhausted = chunk.size() < chunkSize;
+                if (chunk.isEmpty()) {
+                    return null;
+                }
+            }
+            return chunk.get(position);
+        }
+
+        void advance() {
+            last = chunk.get(position++);
+        }
+    }
+}
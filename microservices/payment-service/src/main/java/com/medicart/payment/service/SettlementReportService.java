@@ -0,0 +1,198 @@
+package com.medicart.payment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.medicart.payment.entity.SettlementReport;
+import com.medicart.payment.entity.SettlementReportLine;
+import com.medicart.payment.entity.Transaction;
+import com.medicart.payment.repository.SettlementReportRepository;
+import com.medicart.payment.repository.TransactionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Daily settlement totals: payment attempts by method and outcome, and
+ * successful refunds by method.
+ *
+ * Totals come from the transactions ledger, not from the payments' current
+ * status. A ledger row records what happened on its day and never changes:
+ * a payment refunded later stays settled on the day it was paid, its refund
+ * counts on the day of the refund, and regenerating an old day gives the same
+ * numbers. The database does the aggregation (GROUP BY over the
+ * transaction_type/created_at index), so only a handful of grouped rows
+ * reach the service. The result is stored in settlement_reports and reads are
+ * served from there: generation runs off-peak by cron, or on request on a
+ * single background thread, so report traffic never scans payments alongside
+ * checkout.
+ */
+@Service
+public class SettlementReportService {
+    private static final Logger log = LoggerFactory.getLogger(SettlementReportService.class);
+
+    public static final String LINE_PAYMENT = "PAYMENT";
+    public static final String LINE_REFUND = "REFUND";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SettlementReportRepository settlementReportRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("settlementReportExecutor")
+    private Executor settlementReportExecutor;
+
+    @Value("${payment.settlement.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.settlement.query-timeout-seconds:300}")
+    private int queryTimeoutSeconds;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+        readOnlyTemplate.setTimeout(queryTimeoutSeconds);
+    }
+
+    // Yesterday's report, after the day is closed and before business hours.
+    // Handed to the report executor so the shared scheduler thread (outbox dispatch) is not held.
+    @Scheduled(cron = "${payment.settlement.cron:0 15 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            start(LocalDate.now().minusDays(1));
+        } catch (IllegalStateException e) {
+            log.warn("⚠️  Scheduled settlement report skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * (Re)generate the report for a day in the background.
+     * Throws IllegalStateException when a report is already being generated.
+     */
+    public void start(LocalDate date) {
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Settlement date cannot be in the future");
+        }
+        try {
+            settlementReportExecutor.execute(() -> {
+                try {
+                    generate(date);
+                } catch (Exception e) {
+                    log.error("❌ Settlement report for {} failed: {}", date, e.getMessage(), e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw new IllegalStateException("A settlement report is already being generated");
+        }
+    }
+
+    public SettlementReport getReport(LocalDate date) {
+        return settlementReportRepository.findByReportDate(date)
+                .orElseThrow(() -> new RuntimeException("Settlement report not found"));
+    }
+
+    public SettlementReport generate(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+        long started = System.currentTimeMillis();
+
+        List<TransactionRepository.LedgerSummaryRow> rows =
+                readOnlyTemplate.execute(status -> transactionRepository.summarizeLedger(from, to));
+
+        List<SettlementReportLine> lines = new ArrayList<>();
+        long settledCount = 0;
+        BigDecimal settledAmount = BigDecimal.ZERO;
+        long refundCount = 0;
+        BigDecimal refundAmount = BigDecimal.ZERO;
+        for (TransactionRepository.LedgerSummaryRow row : rows) {
+            boolean success = row.getStatus() == Transaction.TransactionStatus.SUCCESS;
+            if (row.getTransactionType() == Transaction.TransactionType.PAYMENT) {
+                lines.add(line(LINE_PAYMENT, row));
+                if (success) {
+                    settledCount += row.getItemCount();
+                    settledAmount = settledAmount.add(row.getTotalAmount());
+                }
+            } else if (row.getTransactionType() == Transaction.TransactionType.REFUND && success) {
+                lines.add(line(LINE_REFUND, row));
+                refundCount += row.getItemCount();
+                refundAmount = refundAmount.add(row.getTotalAmount());
+            }
+        }
+
+        SettlementReport computed = SettlementReport.builder()
+                .reportDate(date)
+                .settledCount(settledCount)
+                .settledAmount(settledAmount)
+                .refundCount(refundCount)
+                .refundAmount(refundAmount)
+                .netAmount(settledAmount.subtract(refundAmount))
+                .generatedAt(LocalDateTime.now())
+                .lines(lines)
+                .build();
+
+        SettlementReport saved;
+        try {
+            saved = transactionTemplate.execute(status -> store(computed));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the same day first; theirs is just as current
+            log.info("⏭️  Settlement report for {} was stored by another instance", date);
+            return getReport(date);
+        }
+        log.info("📊 Settlement report for {}: {} settled ({}), {} refunds ({}) in {} ms", date,
+                settledCount, settledAmount, refundCount, refundAmount, System.currentTimeMillis() - started);
+        return saved;
+    }
+
+    private SettlementReport store(SettlementReport computed) {
+        SettlementReport report = settlementReportRepository.findByReportDate(computed.getReportDate())
+                .orElseGet(() -> SettlementReport.builder().reportDate(computed.getReportDate()).build());
+        report.setSettledCount(computed.getSettledCount());
+        report.setSettledAmount(computed.getSettledAmount());
+        report.setRefundCount(computed.getRefundCount());
+        report.setRefundAmount(computed.getRefundAmount());
+        report.setNetAmount(computed.getNetAmount());
+        report.setGeneratedAt(computed.getGeneratedAt());
+        report.getLines().clear();
+        report.getLines().addAll(computed.getLines());
+        return settlementReportRepository.saveAndFlush(report);
+    }
+
+    private static SettlementReportLine line(String lineType, TransactionRepository.LedgerSummaryRow row) {
+        return SettlementReportLine.builder()
+                .lineType(lineType)
+                .paymentMethod(row.getPaymentMethod())
+                .status(row.getStatus() != null ? row.getStatus().name() : "UNKNOWN")
+                .count(row.getItemCount())
+                .amount(row.getTotalAmount())
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.medicart.payment.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.medicart.payment.entity.Transaction;
+import com.medicart.payment.repository.TransactionBatchInserter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Group commit for payment state changes and their ledger records.
+ *
+ * A caller hands over a unit: the state change (e.g. mark a payment SUCCESS)
+ * and the ledger record that goes with it. The change and its record always
+ * commit together, so there is never a SUCCESS/REFUNDED payment without its
+ * transactions row. One writer thread drains whatever units have queued up (up
+ * to maxBatch), runs them in one transaction, inserts their records with one
+ * multi-row JDBC batch and commits once, then acknowledges every caller of the
+ * batch. With one caller it degrades to a plain short transaction.
+ *
+ * If a batch fails, its units are run again one transaction each, so only the
+ * failing unit's caller sees the error. If the queue stays full, the unit runs
+ * on the caller's thread. Records must carry a transaction_id chosen by the
+ * caller: the insert is idempotent on it, so re-running a unit whose commit
+ * outcome was unknown does not duplicate the record.
+ * Must not be called inside a DB transaction: the unit commits on its own.
+ */
+@Component
+public class TransactionLedgerWriter {
+    private static final Logger log = LoggerFactory.getLogger(TransactionLedgerWriter.class);
+
+    @Autowired
+    private TransactionBatchInserter transactionBatchInserter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${payment.ledger.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${payment.ledger.max-batch:500}")
+    private int maxBatch;
+
+    // How long a batch may wait for more units once the first one arrived
+    @Value("${payment.ledger.max-linger-ms:0}")
+    private long maxLingerMs;
+
+    @Value("${payment.ledger.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    private BlockingQueue<Unit<?>> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Apply change and append record(result) atomically, and wait until both
+     * are committed. record may return null when the change produced nothing
+     * to record. Exceptions thrown by change reach the caller unchanged.
+     */
+    public <T> T commit(Supplier<T> change, Function<T, Transaction> record) {
+        Unit<T> unit = new Unit<>(change, record, new CompletableFuture<>());
+        boolean queued;
+        try {
+            queued = running && queue.offer(unit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            return commitAlone(unit);
+        }
+
+        // The writer completes every queued unit, so waiting cannot leave a half-written unit behind
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return unit.done().get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    // Queued just as the writer stopped: nobody else will take it
+                    if (!writer.isAlive() && queue.remove(unit)) {
+                        return commitAlone(unit);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Unit<?>> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Unit<?> first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (maxLingerMs > 0 && queue.size() < maxBatch - 1) {
+                    Thread.sleep(maxLingerMs);
+                }
+                queue.drainTo(batch, maxBatch - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // stop() was called: drain what is left, then exit
+                queue.drainTo(batch);
+                flush(batch);
+            } catch (Throwable e) {
+                log.error("❌ Ledger writer error: {}", e.getMessage(), e);
+                batch.forEach(unit -> unit.done().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Unit<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Object> results = transactionTemplate.execute(status -> {
+                List<Transaction> records = new ArrayList<>(batch.size());
+                List<Object> out = new ArrayList<>(batch.size());
+                for (Unit<?> unit : batch) {
+                    out.add(unit.applyDeferred(records));
+                }
+                transactionBatchInserter.insertAll(records);
+                return out;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).completeWith(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                log.warn("⚠️  Ledger batch of {} failed, committing units one by one: {}", batch.size(), e.getMessage());
+            }
+            for (Unit<?> unit : batch) {
+                try {
+                    unit.completeWith(commitAlone(unit));
+                } catch (RuntimeException single) {
+                    unit.done().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private <T> T commitAlone(Unit<T> unit) {
+        return transactionTemplate.execute(status -> {
+            List<Transaction> records = new ArrayList<>(1);
+            T result = unit.applyDeferred(records);
+            transactionBatchInserter.insertAll(records);
+            return result;
+        });
+    }
+
+    private record Unit<T>(Supplier<T> change, Function<T, Transaction> record, CompletableFuture<T> done) {
+
+        // Runs the change and collects its record; the caller inserts the records
+        T applyDeferred(List<Transaction> records) {
+            T result = change.get();
+            Transaction transaction = record.apply(result);
+            if (transaction != null) {
+                records.add(transaction);
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        void completeWith(Object result) {
+            done.complete((T) result);
+        }
+    }
+}
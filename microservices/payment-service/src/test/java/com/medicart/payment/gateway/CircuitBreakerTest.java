@@ -0,0 +1,99 @@
+package com.medicart.payment.gateway;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+    private static final long OPEN_MS = 50;
+
+    // window 10, at least 4 calls, opens at 50% failures, 2 half-open trials
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, OPEN_MS, 2);
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        fail(3);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() {
+        succeed(2);
+        fail(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        fail(3);
+        succeed(10);
+        assertEquals(0.0, breaker.failureRate());
+        fail(4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void halfOpenLimitsTrialsAndClosesWhenAllSucceed() throws InterruptedException {
+        trip();
+        Thread.sleep(OPEN_MS + 10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0.0, breaker.failureRate());
+    }
+
+    @Test
+    void halfOpenFailureOpensAgain() throws InterruptedException {
+        trip();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void releasedTrialPermitCanBeReused() throws InterruptedException {
+        trip();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    private void trip() {
+        fail(4);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess();
+        }
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+}
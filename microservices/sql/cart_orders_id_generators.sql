@@ -0,0 +1,23 @@
+-- cart_orders_db: seed the pooled id generator used by orders, order_items and
+-- cart_items. Run once before starting cart-orders-service on a database that
+-- already has rows; otherwise the generator starts at 1 and collides with existing ids.
+-- The extra 50 covers one full allocation block of the pooled optimizer.
+
+USE cart_orders_db;
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 51 FROM orders
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM order_items
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'cart_items', COALESCE(MAX(id), 0) + 51 FROM cart_items
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
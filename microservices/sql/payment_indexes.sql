@@ -0,0 +1,32 @@
+-- payment_db: indexes for payment history and lookups.
+-- payment-service declares the same indexes on its entities, but production
+-- schemas should not depend on ddl-auto=update. Run once; CREATE INDEX fails
+-- for an index that already exists, so skip those statements on re-runs.
+
+USE payment_db;
+
+-- Rows created by the old failure path could miss payment_date; history is keyed on it
+UPDATE payments SET payment_date = COALESCE(created_at, NOW()) WHERE payment_date IS NULL;
+ALTER TABLE payments MODIFY payment_date DATETIME(6) NOT NULL;
+
+-- GET /api/payment/user/history: WHERE user_id = ? ORDER BY payment_date DESC, id DESC
+CREATE INDEX idx_payments_user_date_id ON payments (user_id, payment_date, id);
+
+-- GET /api/payment/{paymentId}/transactions
+CREATE INDEX idx_transactions_payment ON transactions (payment_id);
+
+-- Reconciliation stream: keyset on (order_id, id) in index order, payment_status
+-- checked from the index as a residual filter, so chunks need no filesort.
+-- Its order_id prefix also serves the payment lookup by order (single-flight,
+-- GET /api/payment/order/{orderId})
+CREATE INDEX idx_payments_order_id_status ON payments (order_id, id, payment_status);
+
+-- Retry queue reload: WHERE payment_status = 'FAILED' AND next_retry_at IS NOT NULL
+CREATE INDEX idx_payments_status_retry ON payments (payment_status, next_retry_at);
+
+-- Settlement report: the ledger records of one day (payments and refunds)
+CREATE INDEX idx_transactions_type_created ON transactions (transaction_type, created_at);
+
+-- Ledger records are retried by transaction_id; the unique key makes the retry a no-op
+-- (fails if legacy rows share a transaction_id: de-duplicate those first)
+CREATE UNIQUE INDEX uk_transactions_transaction_id ON transactions (transaction_id);